@@ -0,0 +1,37 @@
+package frc.team2412.robot;
+
+import edu.wpi.first.hal.HAL;
+
+/**
+ * Helpers for benchmarks that need the simulation HAL (timers, motor controllers, NetworkTables).
+ */
+public final class BenchmarkHAL {
+    private static boolean initialized = false;
+
+    private BenchmarkHAL() {
+    }
+
+    /**
+     * Initializes the simulation HAL once per benchmark JVM.
+     */
+    public static synchronized void initialize() {
+        if (initialized) {
+            return;
+        }
+        if (!HAL.initialize(500, 0)) {
+            throw new IllegalStateException("Failed to initialize the simulation HAL");
+        }
+        initialized = true;
+    }
+
+    /**
+     * Initializes the simulation HAL and returns the {@link Robot} instance subsystems can be created
+     * against.
+     *
+     * @return The {@link Robot} instance.
+     */
+    public static Robot robot() {
+        initialize();
+        return Robot.getInstance();
+    }
+}
@@ -0,0 +1,61 @@
+package frc.team2412.robot.subsystem;
+
+import static frc.team2412.robot.Hardware.LIMELIGHT;
+import static frc.team2412.robot.subsystem.DrivebaseSubsystem.DriveConstants.UPDATE_PERIOD;
+
+import java.util.concurrent.TimeUnit;
+
+import org.frcteam2910.common.math.RigidTransform2;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import frc.team2412.robot.BenchmarkHAL;
+
+/**
+ * Benchmarks the drivebase odometry update and the vision pose math in {@link TargetLocalizer},
+ * running against simulated hardware.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LocalizationBenchmark {
+    private DrivebaseSubsystem drivebaseSubsystem;
+    private TargetLocalizer targetLocalizer;
+
+    private double time;
+
+    @Setup
+    public void setup() {
+        BenchmarkHAL.robot();
+        drivebaseSubsystem = new DrivebaseSubsystem();
+        ShooterSubsystem shooterSubsystem = new ShooterSubsystem();
+        ShooterVisionSubsystem shooterVisionSubsystem = new ShooterVisionSubsystem();
+        targetLocalizer = new TargetLocalizer(drivebaseSubsystem, shooterSubsystem, shooterVisionSubsystem);
+
+        // Pretend the limelight sees the hub
+        NetworkTable limelight = NetworkTableInstance.getDefault().getTable(LIMELIGHT);
+        limelight.getEntry("tv").setDouble(1);
+        limelight.getEntry("tx").setDouble(4.5);
+        limelight.getEntry("ty").setDouble(2.25);
+        shooterVisionSubsystem.periodic();
+    }
+
+    @Benchmark
+    public RigidTransform2 updateOdometry() {
+        time += UPDATE_PERIOD;
+        drivebaseSubsystem.updateOdometry(time, UPDATE_PERIOD);
+        return drivebaseSubsystem.getPose();
+    }
+
+    @Benchmark
+    public RigidTransform2 getVisionGyroRobotPose() {
+        return targetLocalizer.getVisionGyroRobotPose();
+    }
+}
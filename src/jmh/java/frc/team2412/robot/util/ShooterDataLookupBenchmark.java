@@ -0,0 +1,54 @@
+package frc.team2412.robot.util;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares shooter data lookups through {@link InterpolatingTreeMap} and {@link ShooterDataTable}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ShooterDataLookupBenchmark {
+    private InterpolatingTreeMap map;
+    private ShooterDataTable table;
+    private final ShooterDataTable.Sample sample = new ShooterDataTable.Sample();
+
+    private double distance;
+
+    @Setup
+    public void setup() {
+        map = InterpolatingTreeMap.fromCSV(new File("src/main/deploy", "shooterData.csv").getPath());
+        table = new ShooterDataTable(map);
+    }
+
+    /**
+     * Sweeps the distance across and slightly past the table, like a robot driving around the field.
+     */
+    private double nextDistance() {
+        distance += 3.7;
+        if (distance > 300) {
+            distance = 60;
+        }
+        return distance;
+    }
+
+    @Benchmark
+    public ShooterDataDistancePoint treeMapGetInterpolated() {
+        return map.getInterpolated(nextDistance());
+    }
+
+    @Benchmark
+    public ShooterDataTable.Sample tableGetInterpolated() {
+        table.getInterpolated(nextDistance(), sample);
+        return sample;
+    }
+}
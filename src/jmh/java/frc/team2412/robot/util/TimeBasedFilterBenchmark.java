@@ -0,0 +1,59 @@
+package frc.team2412.robot.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks {@link TimeBasedMedianFilter} and {@link TimeBasedMovingAverageFilter} with different
+ * window lengths, feeding samples with explicit timestamps at the robot loop rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TimeBasedFilterBenchmark {
+    // Matches the TimedRobot period
+    private static final double PERIOD = 0.02;
+
+    // Window length in seconds
+    @Param({ "0.1", "1", "5" })
+    public double filterTime;
+
+    private TimeBasedMedianFilter medianFilter;
+    private TimeBasedMovingAverageFilter movingAverageFilter;
+
+    private double input;
+    private double time;
+
+    @Setup
+    public void setup() {
+        medianFilter = new TimeBasedMedianFilter(filterTime);
+        movingAverageFilter = new TimeBasedMovingAverageFilter(filterTime);
+    }
+
+    /**
+     * Noisy, slowly drifting input so the median filter inserts all over its ordered window.
+     */
+    private double nextInput() {
+        time += PERIOD;
+        input += 0.01;
+        return Math.sin(input * 7.3) * 50 + input;
+    }
+
+    @Benchmark
+    public double medianCalculate() {
+        return medianFilter.calculate(nextInput(), time);
+    }
+
+    @Benchmark
+    public double movingAverageCalculate() {
+        return movingAverageFilter.calculate(nextInput(), time);
+    }
+}
@@ -9,16 +9,10 @@ import static frc.team2412.robot.Hardware.*;
 
 import static java.lang.Thread.sleep;
 
-import frc.team2412.robot.commands.autonomous.JackFiveBallAutoCommand;
-import frc.team2412.robot.commands.autonomous.JackStealFourBallAutoCommand;
-import frc.team2412.robot.commands.autonomous.JackStealThreeBallAutoCommand;
-import frc.team2412.robot.commands.autonomous.JackStealThreeBallCompatAutoCommand;
-
-import org.frcteam2910.common.robot.UpdateManager;
+import java.util.List;
 
 import edu.wpi.first.cameraserver.CameraServer;
 import edu.wpi.first.cscore.UsbCamera;
-import edu.wpi.first.hal.simulation.DriverStationDataJNI;
 import edu.wpi.first.wpilibj.DataLogManager;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.PneumaticHub;
@@ -32,9 +26,15 @@ import edu.wpi.first.wpilibj.smartdashboard.Field2d;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
 import frc.team2412.robot.sim.PhysicsSim;
+import frc.team2412.robot.sim.SteppedSimulation;
 import frc.team2412.robot.subsystem.TestingSubsystem;
+import frc.team2412.robot.subsystem.DrivebaseSubsystem.DriveConstants;
+import frc.team2412.robot.util.ControlLoop;
 import frc.team2412.robot.util.MACAddress;
+import frc.team2412.robot.util.MotorOutputCache;
 import frc.team2412.robot.util.autonomous.AutonomousChooser;
+import frc.team2412.robot.util.autonomous.AutonomousChooser.AutonomousMode;
+import frc.team2412.robot.util.StatusFrameProfile;
 import io.github.oblarg.oblog.Logger;
 
 public class Robot extends TimedRobot {
@@ -64,12 +64,14 @@ public class Robot extends TimedRobot {
     public Controls controls;
     public Subsystems subsystems;
 
-    private UpdateManager updateManager;
+    private ControlLoop controlLoop;
     private AutonomousChooser autonomousChooser;
 
     final private RobotType robotType;
 
     private Thread controlAuto;
+    // Set by controlAuto before it ends the competition
+    private volatile boolean automatedTestPassed = false;
 
     public TestingSubsystem testingSubsystem;
 
@@ -109,6 +111,10 @@ public class Robot extends TimedRobot {
         } else {
             try {
                 super.startCompetition();
+                if (!automatedTestPassed) {
+                    System.out.println("Automated test failed");
+                    java.lang.System.exit(1);
+                }
             } catch (Throwable throwable) {
                 Throwable cause = throwable.getCause();
                 if (cause != null) {
@@ -134,11 +140,15 @@ public class Robot extends TimedRobot {
         LiveWindow.enableTelemetry(PDP);
 
         subsystems = new Subsystems();
+        System.out.printf("Estimated status frame CAN bus load: %.1f%%%n",
+                StatusFrameProfile.getTotalEstimatedBusLoad() * 100);
+        Shuffleboard.getTab("CAN").addNumber("Motor set() calls made", MotorOutputCache::getTotalCallsMade);
+        Shuffleboard.getTab("CAN").addNumber("Motor set() calls skipped", MotorOutputCache::getTotalCallsSkipped);
         controls = new Controls(subsystems);
         if (DRIVE_ENABLED) {
-            updateManager = new UpdateManager(
+            controlLoop = new ControlLoop(
                     subsystems.drivebaseSubsystem);
-            updateManager.startLoop(0.011); // 0.005 previously
+            controlLoop.startLoop(DriveConstants.UPDATE_PERIOD);
         }
         if (DRIVER_VIS_ENABLED) {
             fishCamera = new UsbCamera("Front", Hardware.FISH_CAM);
@@ -188,39 +198,29 @@ public class Robot extends TimedRobot {
 
         if (robotType.equals(RobotType.AUTOMATED_TEST)) {
             controlAuto = new Thread(() -> {
-                System.out.println("Waiting two seconds for robot to finish startup");
+                boolean passed = false;
                 try {
-                    sleep(2000);
-                } catch (InterruptedException ignored) {
+                    List<AutonomousMode> modes;
+                    try {
+                        // AUTO_MODES is set by ./gradlew simulateJava -PautomatedTest=true -PautoModes=<modes>
+                        modes = SteppedSimulation.parseModes(System.getenv("AUTO_MODES"));
+                    } catch (IllegalArgumentException e) {
+                        System.out.println("Invalid AUTO_MODES: " + e.getMessage());
+                        return;
+                    }
+                    List<SteppedSimulation.Result> results = new SteppedSimulation(autonomousChooser,
+                            subsystems.drivebaseSubsystem).run(modes);
+                    passed = results.stream().allMatch(result -> result.finished);
+                } finally {
+                    // Always end, otherwise the simulation never exits
+                    automatedTestPassed = passed;
+                    System.out.println("Ending competition");
+                    suppressExitWarning(true);
+                    endCompetition();
                 }
-
-                System.out.println("Enabling autonomous mode and waiting 10 seconds");
-                DriverStationDataJNI.setAutonomous(true);
-                DriverStationDataJNI.setEnabled(true);
-
-                try {
-                    sleep(10000);
-                } catch (InterruptedException ignored) {
-                }
-
-                System.out.println("Disabling robot and waiting two seconds");
-                DriverStationDataJNI.setEnabled(false);
-
-                try {
-                    sleep(2000);
-                } catch (InterruptedException ignored) {
-                }
-
-                System.out.println("Ending competition");
-                suppressExitWarning(true);
-                endCompetition();
             });
             controlAuto.start();
         }
-        JackFiveBallAutoCommand.FiveBallConstants.init();
-        JackStealFourBallAutoCommand.StealFourBallConstants.init();
-        JackStealThreeBallAutoCommand.StealThreeBallConstants.init();
-        JackStealThreeBallCompatAutoCommand.StealThreeBallConstants.init();
     }
 
     @Override
@@ -237,6 +237,7 @@ public class Robot extends TimedRobot {
     @Override
     public void autonomousInit() {
         Shuffleboard.startRecording();
+        MotorOutputCache.resetTotals();
 
         if (subsystems.drivebaseSubsystem != null) {
             subsystems.drivebaseSubsystem.resetPose(autonomousChooser.getStartPose());
@@ -272,6 +273,9 @@ public class Robot extends TimedRobot {
     public void simulationInit() {
 
         PhysicsSim sim = PhysicsSim.getInstance();
+        if (subsystems.drivebaseSubsystem != null) {
+            subsystems.drivebaseSubsystem.simInit(sim);
+        }
         if (subsystems.climbSubsystem != null) {
             subsystems.climbSubsystem.simInit(sim);
         }
@@ -302,6 +306,8 @@ public class Robot extends TimedRobot {
     @Override
     public void disabledInit() {
         Shuffleboard.stopRecording();
+        System.out.println("Motor set() calls made: " + MotorOutputCache.getTotalCallsMade() + ", skipped: "
+                + MotorOutputCache.getTotalCallsSkipped());
         if (subsystems.climbSubsystem != null) {
             subsystems.climbSubsystem.stopArm(true);
         }
@@ -310,4 +316,9 @@ public class Robot extends TimedRobot {
             subsystems.shooterSubsystem.stopFlywheel();
         }
     }
+
+    @Override
+    public void disabledPeriodic() {
+        autonomousChooser.prepareTrajectories();
+    }
 }
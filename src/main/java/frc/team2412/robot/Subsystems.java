@@ -35,6 +35,8 @@ public class Subsystems implements Loggable {
 
     public TargetLocalizer targetLocalizer;
 
+    public PoseEstimator poseEstimator;
+
     public PostClimbSubsystem postClimbSubsystem;
 
     public Subsystems() {
@@ -60,6 +62,7 @@ public class Subsystems implements Loggable {
             shooterVisionSubsystem = new ShooterVisionSubsystem();
             if (DRIVE_ENABLED) {
                 targetLocalizer = new TargetLocalizer(drivebaseSubsystem, shooterSubsystem, shooterVisionSubsystem);
+                poseEstimator = new PoseEstimator(drivebaseSubsystem, targetLocalizer);
             }
         }
         if (POST_CLIMB_ENABLED) {
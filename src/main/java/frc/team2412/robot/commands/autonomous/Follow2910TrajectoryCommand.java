@@ -4,10 +4,12 @@ import org.frcteam2910.common.control.Trajectory;
 
 import edu.wpi.first.wpilibj2.command.CommandBase;
 import frc.team2412.robot.subsystem.DrivebaseSubsystem;
+import frc.team2412.robot.util.SampledTrajectory;
+import frc.team2412.robot.util.TrajectoryLibrary.TrajectoryLibraryConstants;
 
 public class Follow2910TrajectoryCommand extends CommandBase {
     private final DrivebaseSubsystem drivebase;
-    private final Trajectory trajectory;
+    private Trajectory trajectory;
 
     public Follow2910TrajectoryCommand(DrivebaseSubsystem drivebase, Trajectory trajectory) {
         this.drivebase = drivebase;
@@ -18,6 +20,11 @@ public class Follow2910TrajectoryCommand extends CommandBase {
 
     @Override
     public void initialize() {
+        // Sampled trajectories are indexed directly by time, instead of searched every loop. Trajectories
+        // from TrajectoryLibrary already are, others are sampled once here rather than while building autos
+        if (!(trajectory instanceof SampledTrajectory)) {
+            trajectory = SampledTrajectory.sample(trajectory, TrajectoryLibraryConstants.SAMPLE_PERIOD);
+        }
         drivebase.getFollower().follow(trajectory);
     }
 
@@ -13,6 +13,7 @@ import edu.wpi.first.math.trajectory.TrapezoidProfile;
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.CommandBase;
 import frc.team2412.robot.subsystem.DrivebaseSubsystem;
+import frc.team2412.robot.util.WpilibTrajectorySampler;
 
 import java.util.function.Consumer;
 import java.util.function.Supplier;
@@ -46,6 +47,8 @@ public class FollowWpilibTrajectory extends CommandBase {
 
     private final Timer timer = new Timer();
     private final Trajectory trajectory;
+    private final WpilibTrajectorySampler sampler;
+    private final Trajectory.State desiredState = new Trajectory.State();
     private final Supplier<Pose2d> pose;
     private final HolonomicDriveController controller;
     private final Consumer<ChassisSpeeds> outputModuleStates;
@@ -85,6 +88,7 @@ public class FollowWpilibTrajectory extends CommandBase {
         thetaController.enableContinuousInput(-Math.PI, Math.PI);
 
         this.trajectory.relativeTo(pose.get());
+        this.sampler = new WpilibTrajectorySampler(this.trajectory);
 
         controller = new HolonomicDriveController(
                 new PIDController(WPILibAutoConstants.PX_CONTROLLER, 0, 0),
@@ -145,6 +149,7 @@ public class FollowWpilibTrajectory extends CommandBase {
     public void initialize() {
         timer.reset();
         timer.start();
+        sampler.reset();
     }
 
     @Override
@@ -152,7 +157,7 @@ public class FollowWpilibTrajectory extends CommandBase {
     public void execute() {
         // gets current time and desired location in trajectory
         double curTime = timer.get();
-        var desiredState = trajectory.sample(curTime);
+        sampler.sample(curTime, desiredState);
 
         var targetChassisSpeeds = controller.calculate(pose.get(), desiredState, desiredRotation.get());
         outputModuleStates.accept(targetChassisSpeeds);
@@ -167,6 +172,6 @@ public class FollowWpilibTrajectory extends CommandBase {
 
     @Override
     public boolean isFinished() {
-        return timer.hasElapsed(trajectory.getTotalTimeSeconds());
+        return timer.hasElapsed(sampler.getTotalTime());
     }
 }
@@ -21,6 +21,7 @@ import frc.team2412.robot.subsystem.IndexSubsystem;
 import frc.team2412.robot.subsystem.IntakeSubsystem;
 import frc.team2412.robot.subsystem.ShooterSubsystem;
 import frc.team2412.robot.subsystem.TargetLocalizer;
+import frc.team2412.robot.util.TrajectoryLibrary;
 import frc.team2412.robot.util.UtilityCommand;
 
 import static frc.team2412.robot.commands.autonomous.JackFiveBallAutoCommand.FiveBallConstants.*;
@@ -57,30 +58,30 @@ public class JackFiveBallAutoCommand extends SequentialCommandGroup implements U
         // move to third ball, stop and intake for collection
         // move to where second ball was and shoot
 
-        public static final Trajectory PATH_1 = new Trajectory(
+        public static final Trajectory PATH_1 = TrajectoryLibrary.get("FiveBall.PATH_1", () -> new Trajectory(
                 new SimplePathBuilder(new Vector2(328, 75.551), Rotation2.fromDegrees(-90))
                         .arcTo(new Vector2(293.811, 25.771), new Vector2(281.299, 92.401), Rotation2.fromDegrees(-90))
                         .lineTo(new Vector2(218.203, 60.492), Rotation2.fromDegrees(130))
                         .build(),
-                NORMAL_SPEED, 0.1);
+                NORMAL_SPEED, 0.1));
 
-        public static final Trajectory PATH_2 = new Trajectory(
+        public static final Trajectory PATH_2 = TrajectoryLibrary.get("FiveBall.PATH_2", () -> new Trajectory(
                 new SimplePathBuilder(new Vector2(213.203, 66.492), Rotation2.fromDegrees(130))
                         .lineTo(new Vector2(195.049, 82.693), Rotation2.fromDegrees(125))
                         .build(),
-                FAST_SPEED, 0.1);
+                FAST_SPEED, 0.1));
 
-        public static final Trajectory PATH_3 = new Trajectory(
+        public static final Trajectory PATH_3 = TrajectoryLibrary.get("FiveBall.PATH_3", () -> new Trajectory(
                 new SimplePathBuilder(new Vector2(195.029, 75.188), Rotation2.fromDegrees(125))
                         .lineTo(new Vector2(50.456, 85), Rotation2.fromDegrees(202))
                         .build(),
-                NORMAL_SPEED, 0.1);
+                NORMAL_SPEED, 0.1));
 
-        public static final Trajectory PATH_4 = new Trajectory(
+        public static final Trajectory PATH_4 = TrajectoryLibrary.get("FiveBall.PATH_4", () -> new Trajectory(
                 new SimplePathBuilder(new Vector2(50.456, 85), Rotation2.fromDegrees(202))
                         .lineTo(new Vector2(56.456, 91), Rotation2.fromDegrees(202))
                         .build(),
-                NORMAL_SPEED, 0.1);
+                NORMAL_SPEED, 0.1));
 
         // public static final Trajectory PATH_3 = new Trajectory(
         // new SimplePathBuilder(new Vector2(195.029, 75.188), Rotation2.fromDegrees(125))
@@ -89,11 +90,11 @@ public class JackFiveBallAutoCommand extends SequentialCommandGroup implements U
         // .build(),
         // NORMAL_SPEED, 0.1);
 
-        public static final Trajectory PATH_5 = new Trajectory(
+        public static final Trajectory PATH_5 = TrajectoryLibrary.get("FiveBall.PATH_5", () -> new Trajectory(
                 new SimplePathBuilder(new Vector2(56.456, 91), Rotation2.fromDegrees(202))
                         .lineTo(new Vector2(207.029, 82.188), Rotation2.fromDegrees(202))
                         .build(),
-                NORMAL_SPEED, 0.1);
+                NORMAL_SPEED, 0.1));
 
         // public static final Trajectory PATH_4 = new Trajectory(
         // new SimplePathBuilder(new Vector2(22.456, 89.547), Rotation2.fromDegrees(-180))
@@ -20,6 +20,7 @@ import frc.team2412.robot.subsystem.IndexSubsystem;
 import frc.team2412.robot.subsystem.IntakeSubsystem;
 import frc.team2412.robot.subsystem.ShooterSubsystem;
 import frc.team2412.robot.subsystem.TargetLocalizer;
+import frc.team2412.robot.util.TrajectoryLibrary;
 import frc.team2412.robot.util.UtilityCommand;
 
 import static frc.team2412.robot.commands.autonomous.JackStealFourBallAutoCommand.StealFourBallConstants.*;
@@ -38,30 +39,30 @@ public class JackStealFourBallAutoCommand extends DynamicRequirementSequentialCo
                 new CentripetalAccelerationConstraint(6 * 12.0), // old value was 15 * 12.0
         };
 
-        public static final Trajectory PATH_1 = new Trajectory(
+        public static final Trajectory PATH_1 = TrajectoryLibrary.get("StealFourBall.PATH_1", () -> new Trajectory(
                 new SimplePathBuilder(new Vector2(399.125, 133.486), Rotation2.fromDegrees(-90))
                         .arcTo(new Vector2(420.991, 87.809), new Vector2(359.901, 78.359), Rotation2.fromDegrees(-120))
                         .build(),
-                NORMAL_SPEED, 0.1);
+                NORMAL_SPEED, 0.1));
 
-        public static final Trajectory PATH_2 = new Trajectory(
+        public static final Trajectory PATH_2 = TrajectoryLibrary.get("StealFourBall.PATH_2", () -> new Trajectory(
                 new SimplePathBuilder(new Vector2(420.991, 87.809), Rotation2.fromDegrees(-120))
                         .lineTo(new Vector2(394.158, 48.433), Rotation2.fromDegrees(-150))
                         .build(),
-                NORMAL_SPEED, 0.1);
+                NORMAL_SPEED, 0.1));
 
-        public static final Trajectory PATH_3 = new Trajectory(
+        public static final Trajectory PATH_3 = TrajectoryLibrary.get("StealFourBall.PATH_3", () -> new Trajectory(
                 new SimplePathBuilder(new Vector2(394.158, 48.433), Rotation2.fromDegrees(-150))
                         .arcTo(new Vector2(456.770, 202.509), new Vector2(313.678, 161), Rotation2.fromDegrees(-270))
                         .build(),
-                NORMAL_SPEED, 0.1);
+                NORMAL_SPEED, 0.1));
 
-        public static final Trajectory PATH_4 = new Trajectory(
+        public static final Trajectory PATH_4 = TrajectoryLibrary.get("StealFourBall.PATH_4", () -> new Trajectory(
                 new SimplePathBuilder(new Vector2(456.770, 202.509), Rotation2.fromDegrees(-270))
                         .arcTo(new Vector2(373.468, 140.532), new Vector2(369.592, 239.367),
                                 Rotation2.fromDegrees(-205))
                         .build(),
-                NORMAL_SPEED, 0.1);
+                NORMAL_SPEED, 0.1));
 
         public static void init() {
             System.out.println("----- 4 Ball Steal Auto Paths Initialized -----");
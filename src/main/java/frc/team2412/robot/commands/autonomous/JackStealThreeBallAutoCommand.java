@@ -19,6 +19,7 @@ import frc.team2412.robot.subsystem.IndexSubsystem;
 import frc.team2412.robot.subsystem.IntakeSubsystem;
 import frc.team2412.robot.subsystem.ShooterSubsystem;
 import frc.team2412.robot.subsystem.TargetLocalizer;
+import frc.team2412.robot.util.TrajectoryLibrary;
 import frc.team2412.robot.util.UtilityCommand;
 
 import static frc.team2412.robot.commands.autonomous.JackStealThreeBallAutoCommand.StealThreeBallConstants.*;
@@ -37,20 +38,20 @@ public class JackStealThreeBallAutoCommand extends DynamicRequirementSequentialC
                 new CentripetalAccelerationConstraint(6 * 12.0), // old value was 15 * 12.0
         };
 
-        public static final Trajectory PATH_1 = new Trajectory(
+        public static final Trajectory PATH_1 = TrajectoryLibrary.get("StealThreeBall.PATH_1", () -> new Trajectory(
                 new SimplePathBuilder(new Vector2(401.398, 177.473), Rotation2.fromDegrees(0))
                         .lineTo(new Vector2(448.256, 191.255), Rotation2.fromDegrees(0))
                         .arcTo(new Vector2(551, 70), new Vector2(447, 114), Rotation2.fromDegrees(180))
                         .lineTo(new Vector2(440, 16))
                         .lineTo(new Vector2(383.917, 38.712))
                         .build(),
-                NORMAL_SPEED, 0.1);
+                NORMAL_SPEED, 0.1));
 
-        public static final Trajectory PATH_2 = new Trajectory(
+        public static final Trajectory PATH_2 = TrajectoryLibrary.get("StealThreeBall.PATH_2", () -> new Trajectory(
                 new SimplePathBuilder(new Vector2(393.917, 48.712), Rotation2.fromDegrees(180))
                         .lineTo(new Vector2(372.653, 138.097), Rotation2.fromDegrees(150))
                         .build(),
-                NORMAL_SPEED, 0.1);
+                NORMAL_SPEED, 0.1));
 
         public static void init() {
             System.out.println("----- 3 Ball Steal Auto Paths Initialized -----");
@@ -19,6 +19,7 @@ import frc.team2412.robot.subsystem.IndexSubsystem;
 import frc.team2412.robot.subsystem.IntakeSubsystem;
 import frc.team2412.robot.subsystem.ShooterSubsystem;
 import frc.team2412.robot.subsystem.TargetLocalizer;
+import frc.team2412.robot.util.TrajectoryLibrary;
 import frc.team2412.robot.util.UtilityCommand;
 
 import static frc.team2412.robot.commands.autonomous.JackStealThreeBallCompatAutoCommand.StealThreeBallConstants.*;
@@ -38,23 +39,23 @@ public class JackStealThreeBallCompatAutoCommand extends DynamicRequirementSeque
                 new CentripetalAccelerationConstraint(6 * 12.0), // old value was 15 * 12.0
         };
 
-        public static final Trajectory PATH_1 = new Trajectory(
+        public static final Trajectory PATH_1 = TrajectoryLibrary.get("StealThreeCompat.PATH_1", () -> new Trajectory(
                 new SimplePathBuilder(new Vector2(401.398, 177.473), Rotation2.fromDegrees(0))
                         .lineTo(new Vector2(448.256, 191.255), Rotation2.fromDegrees(0))
                         .build(),
-                NORMAL_SPEED, 0.1);
+                NORMAL_SPEED, 0.1));
 
-        public static final Trajectory PATH_2 = new Trajectory(
+        public static final Trajectory PATH_2 = TrajectoryLibrary.get("StealThreeCompat.PATH_2", () -> new Trajectory(
                 new SimplePathBuilder(new Vector2(448.256, 191.255), Rotation2.fromDegrees(0))
                         .arcTo(new Vector2(393.969, 50.021), new Vector2(442.402, 116.567), Rotation2.fromDegrees(-90))
                         .build(),
-                NORMAL_SPEED, 0.1);
+                NORMAL_SPEED, 0.1));
 
-        public static final Trajectory PATH_3 = new Trajectory(
+        public static final Trajectory PATH_3 = TrajectoryLibrary.get("StealThreeCompat.PATH_3", () -> new Trajectory(
                 new SimplePathBuilder(new Vector2(393.969, 50.021), Rotation2.fromDegrees(-90))
                         .lineTo(new Vector2(372.653, 138.097), Rotation2.fromDegrees(150))
                         .build(),
-                NORMAL_SPEED, 0.1);
+                NORMAL_SPEED, 0.1));
 
         public static void init() {
             System.out.println("----- 3 Ball Steal Compat Auto Paths Initialized -----");
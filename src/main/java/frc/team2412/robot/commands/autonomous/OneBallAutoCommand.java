@@ -1,6 +1,7 @@
 package frc.team2412.robot.commands.autonomous;
 
 import frc.team2412.robot.subsystem.*;
+import frc.team2412.robot.util.TrajectoryLibrary;
 import org.frcteam2910.common.control.SimplePathBuilder;
 import org.frcteam2910.common.control.Trajectory;
 import org.frcteam2910.common.math.Rotation2;
@@ -11,14 +12,20 @@ import frc.team2412.robot.commands.index.IndexShootCommand;
 import frc.team2412.robot.commands.shooter.ShooterTargetCommand;
 
 public class OneBallAutoCommand extends SequentialCommandGroup {
-    public OneBallAutoCommand(IndexSubsystem indexSubsystem, ShooterSubsystem shooterSubsystem,
-            TargetLocalizer localizer, DrivebaseSubsystem drivebaseSubsystem, IntakeSubsystem intakeSubsystem) {
-        Trajectory robotPath = new Trajectory(
+    public static class OneBallConstants {
+        public static final Trajectory PATH = TrajectoryLibrary.get("OneBall.PATH", () -> new Trajectory(
                 new SimplePathBuilder(Vector2.ZERO, Rotation2.ZERO)
                         .lineTo(new Vector2(0, 70))
                         .build(),
-                DrivebaseSubsystem.DriveConstants.TRAJECTORY_CONSTRAINTS, 0.1);
+                DrivebaseSubsystem.DriveConstants.TRAJECTORY_CONSTRAINTS, 0.1));
+
+        public static void init() {
+            System.out.println("----- 1 Ball Auto Paths Initialized -----");
+        }
+    }
 
+    public OneBallAutoCommand(IndexSubsystem indexSubsystem, ShooterSubsystem shooterSubsystem,
+            TargetLocalizer localizer, DrivebaseSubsystem drivebaseSubsystem, IntakeSubsystem intakeSubsystem) {
         ShooterTargetCommand.TurretManager manager = new ShooterTargetCommand.TurretManager(shooterSubsystem,
                 localizer);
 
@@ -27,6 +34,6 @@ public class OneBallAutoCommand extends SequentialCommandGroup {
                 manager.scheduleCommand(),
                 manager.disableAt(0),
                 new IndexShootCommand(indexSubsystem, localizer).withTimeout(4),
-                new Follow2910TrajectoryCommand(drivebaseSubsystem, robotPath));
+                new Follow2910TrajectoryCommand(drivebaseSubsystem, OneBallConstants.PATH));
     }
 }
@@ -0,0 +1,49 @@
+package frc.team2412.robot.commands.autonomous;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+import frc.team2412.robot.util.SampledTrajectory;
+import frc.team2412.robot.util.TrajectoryLibrary;
+import frc.team2412.robot.util.TrajectoryLibrary.TrajectoryLibraryConstants;
+
+/**
+ * Profiles every 2910 auto path on the dev machine and writes them to the deploy directory, so the robot
+ * can load them with {@link TrajectoryLibrary} instead of profiling them at startup. Run by
+ * ./gradlew generateTrajectories, which runs before every deploy.
+ */
+public final class TrajectoryPrecompiler {
+    private TrajectoryPrecompiler() {
+    }
+
+    /**
+     * Precompiles the trajectories.
+     *
+     * @param args
+     *            The deploy directory, defaults to src/main/deploy.
+     */
+    public static void main(String... args) throws IOException {
+        File deployDirectory = new File(args.length > 0 ? args[0] : "src/main/deploy");
+
+        // Initializing each constants class generates its trajectories through TrajectoryLibrary
+        TrajectoryLibrary.startRecording();
+        JackFiveBallAutoCommand.FiveBallConstants.init();
+        JackStealFourBallAutoCommand.StealFourBallConstants.init();
+        JackStealThreeBallAutoCommand.StealThreeBallConstants.init();
+        JackStealThreeBallCompatAutoCommand.StealThreeBallConstants.init();
+        OneBallAutoCommand.OneBallConstants.init();
+        TwoBallAutoCommandLeft.TwoBallLeftConstants.init();
+        TwoBallAutoCommandMiddle.TwoBallMiddleConstants.init();
+        TwoBallAutoCommandRight.TwoBallRightConstants.init();
+        Map<String, SampledTrajectory> trajectories = TrajectoryLibrary.stopRecording();
+
+        File output = new File(deployDirectory, TrajectoryLibraryConstants.FILE_NAME);
+        TrajectoryLibrary.write(output.getPath(), trajectories);
+        for (var entry : trajectories.entrySet()) {
+            System.out.println(entry.getKey() + ": " + entry.getValue().getDuration() + " s, "
+                    + entry.getValue().getSampleCount() + " samples");
+        }
+        System.out.println("Wrote " + trajectories.size() + " trajectories to " + output);
+    }
+}
@@ -1,6 +1,7 @@
 package frc.team2412.robot.commands.autonomous;
 
 import frc.team2412.robot.subsystem.*;
+import frc.team2412.robot.util.TrajectoryLibrary;
 import org.frcteam2910.common.control.SimplePathBuilder;
 import org.frcteam2910.common.control.Trajectory;
 import org.frcteam2910.common.math.Rotation2;
@@ -15,16 +16,22 @@ import frc.team2412.robot.commands.intake.IntakeCommand;
 import frc.team2412.robot.commands.shooter.ShooterTargetCommand;
 
 public class TwoBallAutoCommandLeft extends SequentialCommandGroup {
-    public TwoBallAutoCommandLeft(IndexSubsystem indexSubsystem, ShooterSubsystem shooterSubsystem,
-            TargetLocalizer localizer, DrivebaseSubsystem drivebaseSubsystem,
-            IntakeSubsystem intakeSubsystem) {
-        Trajectory robotPath = new Trajectory(
+    public static class TwoBallLeftConstants {
+        public static final Trajectory PATH = TrajectoryLibrary.get("TwoBallLeft.PATH", () -> new Trajectory(
                 new SimplePathBuilder(new Vector2(397.308, 122.461), Rotation2.fromDegrees(316.877))
                         .lineTo(new Vector2(429.597, 88.203), Rotation2.fromDegrees(315))
                         .lineTo(new Vector2(426.841, 94.110), Rotation2.fromDegrees(234))
                         .build(),
-                DrivebaseSubsystem.DriveConstants.TRAJECTORY_CONSTRAINTS, 0.1);
+                DrivebaseSubsystem.DriveConstants.TRAJECTORY_CONSTRAINTS, 0.1));
+
+        public static void init() {
+            System.out.println("----- 2 Ball Left Auto Paths Initialized -----");
+        }
+    }
 
+    public TwoBallAutoCommandLeft(IndexSubsystem indexSubsystem, ShooterSubsystem shooterSubsystem,
+            TargetLocalizer localizer, DrivebaseSubsystem drivebaseSubsystem,
+            IntakeSubsystem intakeSubsystem) {
         addCommands(
                 new IntakeSetExtendCommand(intakeSubsystem),
                 new InstantCommand(() -> new ShooterTargetCommand(shooterSubsystem, localizer,
@@ -32,7 +39,7 @@ public class TwoBallAutoCommandLeft extends SequentialCommandGroup {
                 new ParallelCommandGroup(
                         new IntakeCommand(intakeSubsystem, indexSubsystem),
                         new SequentialCommandGroup(
-                                new Follow2910TrajectoryCommand(drivebaseSubsystem, robotPath),
+                                new Follow2910TrajectoryCommand(drivebaseSubsystem, TwoBallLeftConstants.PATH),
                                 new ParallelCommandGroup(
                                         new IndexShootCommand(indexSubsystem, localizer),
                                         new InstantCommand(() -> new ShooterTargetCommand(shooterSubsystem, localizer,
@@ -5,6 +5,7 @@ import frc.team2412.robot.commands.shooter.ShooterTargetCommand;
 import frc.team2412.robot.commands.intake.IntakeCommand;
 import frc.team2412.robot.commands.index.IndexShootCommand;
 import frc.team2412.robot.subsystem.*;
+import frc.team2412.robot.util.TrajectoryLibrary;
 import org.frcteam2910.common.control.SimplePathBuilder;
 import org.frcteam2910.common.control.Trajectory;
 import org.frcteam2910.common.math.Rotation2;
@@ -16,16 +17,22 @@ import edu.wpi.first.wpilibj2.command.ParallelCommandGroup;
 import edu.wpi.first.wpilibj2.command.SequentialCommandGroup;
 
 public class TwoBallAutoCommandRight extends SequentialCommandGroup {
-    public TwoBallAutoCommandRight(IndexSubsystem indexSubsystem, ShooterSubsystem shooterSubsystem,
-            TargetLocalizer localizer, DrivebaseSubsystem drivebaseSubsystem,
-            IntakeSubsystem intakeSubsystem) {
-        Trajectory robotPath = new Trajectory(
+    public static class TwoBallRightConstants {
+        public static final Trajectory PATH = TrajectoryLibrary.get("TwoBallRight.PATH", () -> new Trajectory(
                 new SimplePathBuilder(new Vector2(341, 250.434), Rotation2.fromDegrees(90))
                         .lineTo(new Vector2(337.850, 290.717), Rotation2.fromDegrees(90))
                         .lineTo(new Vector2(337.850, 287), Rotation2.fromDegrees(0))
                         .build(),
-                DrivebaseSubsystem.DriveConstants.TRAJECTORY_CONSTRAINTS, 0.1);
+                DrivebaseSubsystem.DriveConstants.TRAJECTORY_CONSTRAINTS, 0.1));
+
+        public static void init() {
+            System.out.println("----- 2 Ball Right Auto Paths Initialized -----");
+        }
+    }
 
+    public TwoBallAutoCommandRight(IndexSubsystem indexSubsystem, ShooterSubsystem shooterSubsystem,
+            TargetLocalizer localizer, DrivebaseSubsystem drivebaseSubsystem,
+            IntakeSubsystem intakeSubsystem) {
         addCommands(
                 new IntakeSetExtendCommand(intakeSubsystem),
                 new InstantCommand(() -> new ShooterTargetCommand(shooterSubsystem, localizer,
@@ -33,7 +40,7 @@ public class TwoBallAutoCommandRight extends SequentialCommandGroup {
                 new ParallelCommandGroup(
                         new IntakeCommand(intakeSubsystem, indexSubsystem),
                         new SequentialCommandGroup(
-                                new Follow2910TrajectoryCommand(drivebaseSubsystem, robotPath),
+                                new Follow2910TrajectoryCommand(drivebaseSubsystem, TwoBallRightConstants.PATH),
                                 new WaitCommand(1),
                                 new ParallelCommandGroup(
                                         new IndexShootCommand(indexSubsystem, localizer),
@@ -17,28 +17,35 @@ import frc.team2412.robot.subsystem.DrivebaseSubsystem;
 import frc.team2412.robot.subsystem.ShooterSubsystem;
 
 public class TwoBallFenderAutoCommand extends SequentialCommandGroup {
-    public TwoBallFenderAutoCommand(DrivebaseSubsystem drivebaseSubsystem, ShooterSubsystem shooterSubsystem) {
-
-        TrajectoryConfig fastConfig = new TrajectoryConfig(1, 0.8)
+    public static class TwoBallFenderConstants {
+        public static final TrajectoryConfig FAST_CONFIG = new TrajectoryConfig(1, 0.8)
                 .setKinematics(FollowWpilibTrajectory.WPILibAutoConstants.driveKinematics);
-        ProfiledPIDController thetaController = new ProfiledPIDController(0.1, 0, 0,
-                FollowWpilibTrajectory.WPILibAutoConstants.K_THETA_CONTROLLER_CONSTRAINTS);
 
-        Trajectory trajectory1 = TrajectoryGenerator.generateTrajectory(
+        public static final Trajectory TRAJECTORY_1 = TrajectoryGenerator.generateTrajectory(
                 new Pose2d(new Translation2d(5.89, 5.1), Rotation2d.fromDegrees(46)),
                 List.of(),
                 new Pose2d(new Translation2d(4.99, 5.97), Rotation2d.fromDegrees(46)),
-                fastConfig);
+                FAST_CONFIG);
 
-        Trajectory trajectory2 = TrajectoryGenerator.generateTrajectory(
+        public static final Trajectory TRAJECTORY_2 = TrajectoryGenerator.generateTrajectory(
                 new Pose2d(new Translation2d(4.99, 5.97), Rotation2d.fromDegrees(46)),
                 List.of(),
                 new Pose2d(new Translation2d(6.98, 4.48), Rotation2d.fromDegrees(-21)),
-                fastConfig);
+                FAST_CONFIG);
+
+        public static void init() {
+            System.out.println("----- 2 Ball Fender Auto Paths Initialized -----");
+        }
+    }
+
+    public TwoBallFenderAutoCommand(DrivebaseSubsystem drivebaseSubsystem, ShooterSubsystem shooterSubsystem) {
+
+        ProfiledPIDController thetaController = new ProfiledPIDController(0.1, 0, 0,
+                FollowWpilibTrajectory.WPILibAutoConstants.K_THETA_CONTROLLER_CONSTRAINTS);
 
         addCommands(
-                new FollowWpilibTrajectory(drivebaseSubsystem, trajectory1, thetaController),
-                new FollowWpilibTrajectory(drivebaseSubsystem, trajectory2, thetaController),
+                new FollowWpilibTrajectory(drivebaseSubsystem, TwoBallFenderConstants.TRAJECTORY_1, thetaController),
+                new FollowWpilibTrajectory(drivebaseSubsystem, TwoBallFenderConstants.TRAJECTORY_2, thetaController),
                 new ParallelCommandGroup(
                         new ShooterHoodRPMCommand(shooterSubsystem, 2700, 0),
                         new InstantCommand(() -> shooterSubsystem.setTurretAngle(-90))));
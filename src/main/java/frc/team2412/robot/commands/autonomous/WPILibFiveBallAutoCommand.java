@@ -24,37 +24,47 @@ import frc.team2412.robot.subsystem.ShooterSubsystem;
 import frc.team2412.robot.subsystem.TargetLocalizer;
 
 public class WPILibFiveBallAutoCommand extends SequentialCommandGroup {
-    public WPILibFiveBallAutoCommand(DrivebaseSubsystem drivebaseSubsystem, IntakeSubsystem intakeSubsystem,
-            IndexSubsystem indexSubsystem, ShooterSubsystem shooterSubsystem, TargetLocalizer localizer) {
-
-        TrajectoryConfig normalSpeedConfig = new TrajectoryConfig(1, 1)
+    public static class WPILibFiveBallConstants {
+        public static final TrajectoryConfig NORMAL_SPEED_CONFIG = new TrajectoryConfig(1, 1)
                 // Add kinematics to ensure max speed is actually obeyed
                 .setKinematics(FollowWpilibTrajectory.WPILibAutoConstants.driveKinematics);
-        ProfiledPIDController thetaController = new ProfiledPIDController(
-                FollowWpilibTrajectory.WPILibAutoConstants.DEFAULT_THETA, 0, 0,
-                FollowWpilibTrajectory.WPILibAutoConstants.K_THETA_CONTROLLER_CONSTRAINTS);
 
-        Trajectory trajectoryOne = TrajectoryGenerator.generateTrajectory(
+        public static final Trajectory TRAJECTORY_ONE = TrajectoryGenerator.generateTrajectory(
                 List.of(new Pose2d(8.4, 1.8, Rotation2d.fromDegrees(-90)),
                         new Pose2d(7.4, 0.9, Rotation2d.fromDegrees(180)),
                         new Pose2d(5.3, 1.8, Rotation2d.fromDegrees(180))),
-                normalSpeedConfig);
-        Trajectory trajectoryTwo = TrajectoryGenerator.generateTrajectory(
+                NORMAL_SPEED_CONFIG);
+        public static final Trajectory TRAJECTORY_TWO = TrajectoryGenerator.generateTrajectory(
                 new Pose2d(5.3, 1.8, Rotation2d.fromDegrees(180)),
                 List.of(),
-                new Pose2d(2.0, 1.3, Rotation2d.fromDegrees(180)), normalSpeedConfig);
-        Trajectory trajectoryThree = TrajectoryGenerator.generateTrajectory(
+                new Pose2d(2.0, 1.3, Rotation2d.fromDegrees(180)), NORMAL_SPEED_CONFIG);
+        public static final Trajectory TRAJECTORY_THREE = TrajectoryGenerator.generateTrajectory(
                 new Pose2d(2.0, 1.3, Rotation2d.fromDegrees(0)),
                 List.of(),
-                new Pose2d(5, 2.7, Rotation2d.fromDegrees(0)), normalSpeedConfig);
+                new Pose2d(5, 2.7, Rotation2d.fromDegrees(0)), NORMAL_SPEED_CONFIG);
+
+        public static void init() {
+            System.out.println("----- WPILib 5 Ball Auto Paths Initialized -----");
+        }
+    }
+
+    public WPILibFiveBallAutoCommand(DrivebaseSubsystem drivebaseSubsystem, IntakeSubsystem intakeSubsystem,
+            IndexSubsystem indexSubsystem, ShooterSubsystem shooterSubsystem, TargetLocalizer localizer) {
+
+        ProfiledPIDController thetaController = new ProfiledPIDController(
+                FollowWpilibTrajectory.WPILibAutoConstants.DEFAULT_THETA, 0, 0,
+                FollowWpilibTrajectory.WPILibAutoConstants.K_THETA_CONTROLLER_CONSTRAINTS);
 
         addCommands(
                 new ParallelCommandGroup(
                         // paths
                         new SequentialCommandGroup(
-                                new FollowWpilibTrajectory(drivebaseSubsystem, trajectoryOne, thetaController),
-                                new FollowWpilibTrajectory(drivebaseSubsystem, trajectoryTwo, thetaController),
-                                new FollowWpilibTrajectory(drivebaseSubsystem, trajectoryThree, thetaController))),
+                                new FollowWpilibTrajectory(drivebaseSubsystem, WPILibFiveBallConstants.TRAJECTORY_ONE,
+                                        thetaController),
+                                new FollowWpilibTrajectory(drivebaseSubsystem, WPILibFiveBallConstants.TRAJECTORY_TWO,
+                                        thetaController),
+                                new FollowWpilibTrajectory(drivebaseSubsystem,
+                                        WPILibFiveBallConstants.TRAJECTORY_THREE, thetaController))),
 
                 // actions
                 // STEPS FOR COMMAND
@@ -10,7 +10,8 @@ import edu.wpi.first.wpilibj2.command.InstantCommand;
 import edu.wpi.first.wpilibj2.command.ScheduleCommand;
 import frc.team2412.robot.subsystem.ShooterSubsystem;
 import frc.team2412.robot.subsystem.TargetLocalizer;
-import frc.team2412.robot.util.ShooterDataDistancePoint;
+import frc.team2412.robot.util.MovingShotSolver;
+import frc.team2412.robot.util.ShooterDataTable;
 
 public class ShooterTargetCommand extends CommandBase {
     private final ShooterSubsystem shooter;
@@ -20,6 +21,9 @@ public class ShooterTargetCommand extends CommandBase {
 
     private double turretAngle = 0;
 
+    private final ShooterDataTable.Sample shooterData = new ShooterDataTable.Sample();
+    private final MovingShotSolver.Solution movingShot = new MovingShotSolver.Solution();
+
     public ShooterTargetCommand(ShooterSubsystem shooter, TargetLocalizer localizer) {
         this(shooter, localizer, () -> false);
     }
@@ -53,14 +57,24 @@ public class ShooterTargetCommand extends CommandBase {
         // if (!localizer.hasTarget())
         // return;
 
-        if (ShooterConstants.DATA_POINTS != null && localizer.getAdjustedDistance() < 280 && localizer.hasTarget()) {
-            ShooterDataDistancePoint shooterData = ShooterConstants.DATA_POINTS
-
-                    .getInterpolated(localizer.getAdjustedDistance());
-
+        // Read once per loop, since the distance and yaw are filtered
+        double distance = localizer.getDistance();
+        double hubTurretAngle = localizer.getVisionYawReferenceTurretAngle() + localizer.getTargetYaw();
+        boolean solved = localizer.hasTarget() && localizer.solveMovingShot(distance, hubTurretAngle, movingShot);
+
+        ShooterDataTable dataTable = shooter.getDataTable();
+        double adjustedDistance = localizer.getAdjustedDistance(distance);
+
+        if (solved) {
+            if (movingShot.getDistance() < 280) {
+                shooter.setHoodAngle(movingShot.getAngle());
+                shooter.setFlywheelRPM(movingShot.getRPM());
+            }
+        } else if (dataTable != null && adjustedDistance < 280
+                && localizer.hasTarget()
+                && dataTable.getInterpolated(adjustedDistance, shooterData)) {
             shooter.setHoodAngle(shooterData.getAngle());
             shooter.setFlywheelRPM(shooterData.getRPM());
-
         }
 
         if (turretDisable.getAsBoolean())
@@ -89,11 +103,15 @@ public class ShooterTargetCommand extends CommandBase {
                     state = TurretState.TRACKING;
                 break;
             case TRACKING:
-                turretAngle = shooter.getTurretAngle() + localizer.getTargetYaw();
+                turretAngle = hubTurretAngle;
                 break;
         }
 
-        double localizerTurretAdjustment = state == TurretState.TRACKING ? localizer.yawAdjustment() : 0;
+        double localizerTurretAdjustment = 0;
+        if (state == TurretState.TRACKING) {
+            localizerTurretAdjustment = solved ? movingShot.getYawOffset() + localizer.angularAdjustment()
+                    : localizer.yawAdjustment(distance);
+        }
 
         // System.out.println("Localizer turret adjustment: " + localizerTurretAdjustment);
 
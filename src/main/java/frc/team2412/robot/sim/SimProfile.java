@@ -11,13 +11,15 @@ public abstract class SimProfile {
     public abstract void run();
 
     /**
-     * Returns the time since last call.
+     * Returns the time since last call. The first call returns 0.
      *
      * @return Time since last call, in milliseconds.
      */
     protected double getPeriod() {
         if (timer == null) {
             timer = new Timer();
+            // A Timer reads 0 until it's started
+            timer.start();
         }
 
         double period = timer.get() * 1000;
@@ -0,0 +1,157 @@
+package frc.team2412.robot.sim;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj2.command.CommandBase;
+import frc.team2412.robot.subsystem.DrivebaseSubsystem;
+import frc.team2412.robot.util.autonomous.AutonomousChooser;
+import frc.team2412.robot.util.autonomous.AutonomousChooser.AutonomousMode;
+
+/**
+ * Runs autonomous modes in simulation on a virtual clock, as fast as the robot code can run.
+ *
+ * Sim timing is paused, and advanced with {@link SimHooks#stepTiming(double)}, which waits for the
+ * robot loop, the control loop and every other notifier to run before returning. Everything timed off
+ * the FPGA clock, including {@link PhysicsSim}, sees the same virtual time as a real match.
+ *
+ * Must be run on its own thread, not the robot's main thread.
+ */
+public class SteppedSimulation {
+    public static class SteppedSimulationConstants {
+        // Seconds of virtual time
+        public static final double STEP = 0.02;
+        public static final double STARTUP_TIME = 2;
+        public static final double AUTONOMOUS_TIME = 15;
+        public static final double DISABLED_TIME = 1;
+    }
+
+    /**
+     * The outcome of one autonomous mode.
+     */
+    public static class Result {
+        public final AutonomousMode mode;
+        /** Whether the command finished before the end of autonomous. */
+        public final boolean finished;
+        /** Real time taken to simulate the mode, in seconds. */
+        public final double wallTime;
+        /** Odometry pose at the end of autonomous, or null if the drivebase is disabled. */
+        public final String endPose;
+
+        private Result(AutonomousMode mode, boolean finished, double wallTime, String endPose) {
+            this.mode = mode;
+            this.finished = finished;
+            this.wallTime = wallTime;
+            this.endPose = endPose;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%s: %s in %.2f s real time, end pose %s", mode,
+                    finished ? "finished" : "still running", wallTime, endPose);
+        }
+    }
+
+    private final AutonomousChooser chooser;
+    private final DrivebaseSubsystem drivebase;
+
+    /**
+     * Creates a new {@link SteppedSimulation}.
+     *
+     * @param chooser
+     *            The chooser to run modes from.
+     * @param drivebase
+     *            The drivebase to report poses from, or null.
+     */
+    public SteppedSimulation(AutonomousChooser chooser, DrivebaseSubsystem drivebase) {
+        this.chooser = chooser;
+        this.drivebase = drivebase;
+    }
+
+    /**
+     * Parses a list of modes.
+     *
+     * @param modes
+     *            Comma separated {@link AutonomousMode} names, "all" for every enabled mode that
+     *            {@link AutonomousMode#isSwept() ends on its own}, or null or empty for the mode selected on
+     *            the dashboard.
+     * @return The modes, or a list containing only null for the dashboard selection.
+     * @throws IllegalArgumentException
+     *             If a name isn't an {@link AutonomousMode}.
+     */
+    public static List<AutonomousMode> parseModes(String modes) {
+        List<AutonomousMode> result = new ArrayList<>();
+        if (modes == null || modes.isBlank()) {
+            result.add(null);
+        } else if (modes.trim().equalsIgnoreCase("all")) {
+            for (AutonomousMode mode : AutonomousMode.values()) {
+                if (mode.enabled && mode.isSwept()) {
+                    result.add(mode);
+                }
+            }
+        } else {
+            for (String name : modes.split(",")) {
+                try {
+                    result.add(AutonomousMode.valueOf(name.trim().toUpperCase(Locale.US)));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Unknown autonomous mode \"" + name.trim()
+                            + "\", expected all or any of " + Arrays.toString(AutonomousMode.values()), e);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Pauses sim timing and runs each mode for a full autonomous period, disabled in between.
+     *
+     * @param modes
+     *            The modes to run. A null mode runs the dashboard selection.
+     * @return The result of each mode. The automated test fails if any mode didn't finish.
+     */
+    public List<Result> run(List<AutonomousMode> modes) {
+        SimHooks.pauseTiming();
+        setEnabled(false);
+        step(SteppedSimulationConstants.STARTUP_TIME);
+
+        List<Result> results = new ArrayList<>();
+        for (AutonomousMode mode : modes) {
+            chooser.setOverride(mode);
+            // Let the chooser load the trajectories while disabled, like before a match
+            step(SteppedSimulationConstants.DISABLED_TIME);
+
+            long start = System.nanoTime();
+            CommandBase previous = chooser.getLastScheduled();
+            DriverStationSim.setAutonomous(true);
+            setEnabled(true);
+            step(SteppedSimulationConstants.AUTONOMOUS_TIME);
+            CommandBase command = chooser.getLastScheduled();
+            boolean finished = command != null && command != previous && !command.isScheduled();
+            String endPose = drivebase != null ? drivebase.getPose().toString() : null;
+            setEnabled(false);
+            step(SteppedSimulationConstants.DISABLED_TIME);
+
+            Result result = new Result(chooser.getSelected(), finished, (System.nanoTime() - start) / 1e9,
+                    endPose);
+            System.out.println(result);
+            results.add(result);
+        }
+        chooser.setOverride(null);
+        return results;
+    }
+
+    private static void setEnabled(boolean enabled) {
+        DriverStationSim.setEnabled(enabled);
+        DriverStationSim.notifyNewData();
+    }
+
+    private static void step(double seconds) {
+        for (double time = 0; time < seconds; time += SteppedSimulationConstants.STEP) {
+            SimHooks.stepTiming(SteppedSimulationConstants.STEP);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package frc.team2412.robot.sim;
+
+import static frc.team2412.robot.sim.TalonFXSimProfile.TalonFXConstants.*;
+
+import java.util.function.DoubleConsumer;
+
+import org.frcteam2910.common.math.RigidTransform2;
+import org.frcteam2910.common.math.Rotation2;
+import org.frcteam2910.common.math.Vector2;
+
+import com.ctre.phoenix.motorcontrol.TalonFXSimCollection;
+import com.ctre.phoenix.motorcontrol.can.TalonFX;
+import com.swervedrivespecialties.swervelib.ModuleConfiguration;
+
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.simulation.DCMotorSim;
+import frc.team2412.robot.util.Mk4Configuration;
+import frc.team2412.robot.util.PrimitiveSwerveKinematics;
+
+/**
+ * Simulation profile for a swerve drivetrain of Mk4 modules with Falcon 500s.
+ *
+ * Each module's drive and steer motors are simulated as DC motors driven by the output voltage of
+ * their TalonFX, and the integrated sensors are set from the result, so the modules' own closed loops
+ * run against the simulated motors. The drive motor of each module pushes a quarter of the robot's
+ * mass, without modeling the modules fighting each other.
+ *
+ * The chassis velocity is computed from the module velocities with the drivebase's kinematics, and
+ * integrated into a heading for the gyro and a ground truth pose.
+ */
+public class SwerveDrivetrainSim extends SimProfile {
+    public static class SwerveDrivetrainSimConstants {
+        // Robot with battery and bumpers, about 125 lbs
+        public static final double ROBOT_MASS_KG = 57;
+        // Moment of inertia of a module about its steering axis, in kg m^2
+        public static final double STEER_INERTIA = 0.004;
+        public static final double INCHES_PER_METER = 39.37008;
+    }
+
+    private static class Module {
+        final TalonFXSimCollection driveMotor;
+        final TalonFXSimCollection steerMotor;
+        final DCMotorSim drive;
+        final DCMotorSim steer;
+        final double driveReduction;
+        final double steerReduction;
+        final double wheelRadius;
+        // TalonFX sensors read negated when the motor is inverted
+        final double driveSign;
+        final double steerSign;
+
+        Module(Mk4Configuration config) {
+            ModuleConfiguration module = config.getRatio().getConfiguration();
+            driveMotor = new TalonFX(config.getDrive(), config.getCanBus()).getSimCollection();
+            steerMotor = new TalonFX(config.getAngle(), config.getCanBus()).getSimCollection();
+            driveReduction = module.getDriveReduction();
+            steerReduction = module.getSteerReduction();
+            wheelRadius = module.getWheelDiameter() / 2;
+            driveSign = module.isDriveInverted() ? -1 : 1;
+            steerSign = module.isSteerInverted() ? -1 : 1;
+
+            double driveInertia = SwerveDrivetrainSimConstants.ROBOT_MASS_KG / 4 * wheelRadius * wheelRadius;
+            drive = new DCMotorSim(DCMotor.getFalcon500(1), 1 / driveReduction, driveInertia);
+            steer = new DCMotorSim(DCMotor.getFalcon500(1), 1 / steerReduction,
+                    SwerveDrivetrainSimConstants.STEER_INERTIA);
+        }
+
+        void update(double dt, double busVoltage) {
+            driveMotor.setBusVoltage(busVoltage);
+            steerMotor.setBusVoltage(busVoltage);
+            drive.setInputVoltage(driveMotor.getMotorOutputLeadVoltage());
+            steer.setInputVoltage(steerMotor.getMotorOutputLeadVoltage());
+            drive.update(dt);
+            steer.update(dt);
+
+            setSensor(driveMotor, drive.getAngularPositionRad() / driveReduction,
+                    drive.getAngularVelocityRadPerSec() / driveReduction);
+            setSensor(steerMotor, steer.getAngularPositionRad() / steerReduction,
+                    steer.getAngularVelocityRadPerSec() / steerReduction);
+            setCurrent(driveMotor, drive.getCurrentDrawAmps());
+            setCurrent(steerMotor, steer.getCurrentDrawAmps());
+        }
+
+        /**
+         * Returns the velocity of the wheel along the ground, in inches per second.
+         */
+        double getSpeed() {
+            return drive.getAngularVelocityRadPerSec() * wheelRadius * driveSign
+                    * SwerveDrivetrainSimConstants.INCHES_PER_METER;
+        }
+
+        /**
+         * Returns the steering angle of the module, in radians.
+         */
+        double getAngle() {
+            return steer.getAngularPositionRad() * steerSign;
+        }
+
+        private static void setSensor(TalonFXSimCollection motor, double position, double velocity) {
+            double ticksPerRadian = ENCODER_TICKS_PER_REVOLUTION / (2 * Math.PI);
+            motor.setIntegratedSensorRawPosition((int) Math.round(position * ticksPerRadian));
+            // Ticks per 100ms
+            motor.setIntegratedSensorVelocity((int) Math.round(velocity * ticksPerRadian / 10));
+        }
+
+        private static void setCurrent(TalonFXSimCollection motor, double current) {
+            motor.setStatorCurrent(Math.abs(current));
+            motor.setSupplyCurrent(Math.abs(current * motor.getMotorOutputLeadVoltage()
+                    / RobotController.getBatteryVoltage()));
+        }
+    }
+
+    private final Module[] modules;
+    private final PrimitiveSwerveKinematics kinematics;
+    private final DoubleConsumer gyroscope;
+
+    private final double[] moduleX;
+    private final double[] moduleY;
+    private final double[] chassisVelocity = new double[3];
+
+    // Heading fed to the gyro, in radians, never reset
+    private double heading = 0;
+    // Ground truth pose, in inches
+    private double x = 0, y = 0, rotation = 0;
+
+    /**
+     * Creates a new {@link SwerveDrivetrainSim}.
+     *
+     * @param configs
+     *            The configuration of each module, in the same order as the kinematics.
+     * @param kinematics
+     *            The drivebase's kinematics.
+     * @param gyroscope
+     *            Sets the simulated gyro's yaw, in degrees counterclockwise.
+     */
+    public SwerveDrivetrainSim(Mk4Configuration[] configs, PrimitiveSwerveKinematics kinematics,
+            DoubleConsumer gyroscope) {
+        modules = new Module[configs.length];
+        for (int i = 0; i < configs.length; i++) {
+            modules[i] = new Module(configs[i]);
+        }
+        this.kinematics = kinematics;
+        this.gyroscope = gyroscope;
+        moduleX = new double[configs.length];
+        moduleY = new double[configs.length];
+    }
+
+    @Override
+    public void run() {
+        double dt = getPeriod() / 1000;
+        if (dt <= 0) {
+            return;
+        }
+
+        double busVoltage = RobotController.getBatteryVoltage();
+        for (int i = 0; i < modules.length; i++) {
+            Module module = modules[i];
+            module.update(dt, busVoltage);
+            double speed = module.getSpeed();
+            double angle = module.getAngle();
+            moduleX[i] = Math.cos(angle) * speed;
+            moduleY[i] = Math.sin(angle) * speed;
+        }
+        kinematics.toChassisVelocity(moduleX, moduleY, chassisVelocity);
+
+        // Integrate at the middle of the step's rotation
+        double omega = chassisVelocity[2];
+        double midRotation = rotation + omega * dt / 2;
+        double cos = Math.cos(midRotation), sin = Math.sin(midRotation);
+        x += (chassisVelocity[0] * cos - chassisVelocity[1] * sin) * dt;
+        y += (chassisVelocity[0] * sin + chassisVelocity[1] * cos) * dt;
+        rotation += omega * dt;
+        heading += omega * dt;
+        gyroscope.accept(Math.toDegrees(heading));
+    }
+
+    /**
+     * Returns the simulated pose of the robot, which odometry can be compared against.
+     *
+     * @return The pose, in inches.
+     */
+    public RigidTransform2 getPose() {
+        return new RigidTransform2(new Vector2(x, y), Rotation2.fromRadians(rotation));
+    }
+
+    /**
+     * Moves the simulated robot without changing the gyro's heading, like picking it up and placing it
+     * somewhere else.
+     *
+     * @param pose
+     *            The new pose, in inches.
+     */
+    public void resetPose(RigidTransform2 pose) {
+        x = pose.translation.x;
+        y = pose.translation.y;
+        rotation = pose.rotation.toRadians();
+    }
+}
@@ -14,6 +14,7 @@ import edu.wpi.first.wpilibj.DigitalInput;
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.team2412.robot.sim.PhysicsSim;
+import frc.team2412.robot.util.StatusFrameProfile;
 import io.github.oblarg.oblog.Loggable;
 import io.github.oblarg.oblog.annotations.Config;
 import io.github.oblarg.oblog.annotations.Log;
@@ -86,6 +87,7 @@ public class ClimbSubsystem extends SubsystemBase implements Loggable {
         motorConfig.supplyCurrLimit = MOTOR_CURRENT_LIMIT;
         motor.configAllSettings(motorConfig);
         motor.setNeutralMode(NeutralMode.Brake);
+        StatusFrameProfile.POSITION_MECHANISM.apply("Climb", motor);
 
         setPIDExtend(EXTENSION_P, EXTENSION_I, EXTENSION_D);
         setPIDRetract(RETRACTION_P, RETRACTION_I, RETRACTION_D);
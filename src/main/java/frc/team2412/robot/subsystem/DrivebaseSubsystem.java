@@ -2,11 +2,14 @@ package frc.team2412.robot.subsystem;
 
 import static frc.team2412.robot.Hardware.*;
 
+import com.ctre.phoenix.sensors.BasePigeonSimCollection;
+import com.ctre.phoenix.sensors.Pigeon2;
 import com.google.errorprone.annotations.concurrent.GuardedBy;
 import com.swervedrivespecialties.swervelib.SwerveModule;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.hal.SimDouble;
 import edu.wpi.first.math.util.Units;
 import edu.wpi.first.networktables.NetworkTableEntry;
 import edu.wpi.first.wpilibj.RobotController;
@@ -14,13 +17,20 @@ import edu.wpi.first.wpilibj.SerialPort;
 import edu.wpi.first.wpilibj.shuffleboard.BuiltInWidgets;
 import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
 import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
+import edu.wpi.first.wpilibj.simulation.SimDeviceSim;
 import edu.wpi.first.wpilibj.smartdashboard.Field2d;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.team2412.robot.Hardware;
 import frc.team2412.robot.Robot;
+import frc.team2412.robot.sim.PhysicsSim;
+import frc.team2412.robot.sim.SwerveDrivetrainSim;
 import frc.team2412.robot.util.GeoConvertor;
+import frc.team2412.robot.util.Mk4Configuration;
 import frc.team2412.robot.util.PFFController;
+import frc.team2412.robot.util.PoseHistoryBuffer;
+import frc.team2412.robot.util.PrimitiveSwerveKinematics;
+import frc.team2412.robot.util.PrimitiveSwerveOdometry;
 import frc.team2412.robot.util.VectorSlewLimiter;
 import io.github.oblarg.oblog.annotations.Config;
 
@@ -39,6 +49,8 @@ import org.frcteam2910.common.util.*;
 
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.DoubleConsumer;
 
 import io.github.oblarg.oblog.Loggable;
 
@@ -65,12 +77,21 @@ public class DrivebaseSubsystem extends SubsystemBase implements UpdateManager.U
                 new CentripetalAccelerationConstraint(6 * 12.0), // old value was 15 * 12.0
         };
 
-        public static final int MAX_LATENCY_COMPENSATION_MAP_ENTRIES = 25;
+        // Period of the control loop running update, in seconds. Was 0.005 previously.
+        public static final double UPDATE_PERIOD = 0.011;
+
+        // How far back getPoseAtTime can look, in seconds
+        public static final double POSE_HISTORY_DURATION = 2.0;
+        public static final int POSE_HISTORY_CAPACITY = (int) Math.ceil(POSE_HISTORY_DURATION / UPDATE_PERIOD) + 1;
 
         public static final boolean ANTI_TIP_DEFAULT = true;
 
         public static final boolean FIELD_CENTRIC_DEFAULT = true;
 
+        // Use the allocation-free kinematics and odometry instead of 2910's. Off by default, since 2910's
+        // is what the robot has driven on
+        public static final boolean PRIMITIVE_KINEMATICS_DEFAULT = false;
+
         public static final double TIP_P = 0.05, TIP_F = 0, TIP_TOLERANCE = 10, ACCEL_LIMIT = 4;
 
         public static final Rotation2 PRACTICE_BOT_DRIVE_OFFSET = Rotation2.fromDegrees(-90), // should be 90
@@ -89,6 +110,14 @@ public class DrivebaseSubsystem extends SubsystemBase implements UpdateManager.U
             new Vector2(-TRACKWIDTH / 2.0, -WHEELBASE / 2.0) // back right
     );
 
+    private final PrimitiveSwerveKinematics primitiveKinematics = new PrimitiveSwerveKinematics(swerveKinematics, 4);
+
+    // Scratch buffers for the update thread
+    private final double[] moduleVelocityX = new double[4];
+    private final double[] moduleVelocityY = new double[4];
+    private final double[] moduleOutputX = new double[4];
+    private final double[] moduleOutputY = new double[4];
+
     private SwerveModule[] modules;
     private final double moduleMaxVelocityMetersPerSec;
 
@@ -96,17 +125,64 @@ public class DrivebaseSubsystem extends SubsystemBase implements UpdateManager.U
     @GuardedBy("sensorLock")
     private final Gyroscope gyroscope;
 
+    /**
+     * An immutable snapshot of the drivebase's odometry, published all at once so readers always see a
+     * pose and velocity from the same update.
+     */
+    public static class KinematicState {
+        public static final KinematicState ZERO = new KinematicState(RigidTransform2.ZERO, Vector2.ZERO, 0, 0);
+
+        /** Odometry pose, in inches. */
+        public final RigidTransform2 pose;
+        /** Robot-relative chassis velocity, in inches per second. */
+        public final Vector2 velocity;
+        /** Angular velocity, in radians per second. */
+        public final double angularVelocity;
+        /** FPGA time of the update, in seconds. */
+        public final double timestamp;
+
+        public KinematicState(RigidTransform2 pose, Vector2 velocity, double angularVelocity, double timestamp) {
+            this.pose = pose;
+            this.velocity = velocity;
+            this.angularVelocity = angularVelocity;
+            this.timestamp = timestamp;
+        }
+    }
+
+    /**
+     * A pose correction from the pose estimator, with the number of pose resets it was estimated after.
+     */
+    private static class PoseCorrection {
+        static final PoseCorrection NONE = new PoseCorrection(Vector2.ZERO, 0);
+
+        /** Translation added to the odometry pose, in inches. */
+        final Vector2 correction;
+        /** Number of pose resets before the correction was estimated. */
+        final int resetCount;
+
+        PoseCorrection(Vector2 correction, int resetCount) {
+            this.correction = correction;
+            this.resetCount = resetCount;
+        }
+    }
+
+    // Serializes writers (the update thread and pose resets); readers only read kinematicState
     private final Object kinematicsLock = new Object();
     @GuardedBy("kinematicsLock")
     private final SwerveOdometry swerveOdometry = new SwerveOdometry(swerveKinematics, RigidTransform2.ZERO);
     @GuardedBy("kinematicsLock")
-    private RigidTransform2 pose = RigidTransform2.ZERO;
-    @GuardedBy("kinematicsLock")
-    private final InterpolatingTreeMap<InterpolatingDouble, RigidTransform2> latencyCompensationMap = new InterpolatingTreeMap<>();
+    private final PrimitiveSwerveOdometry primitiveOdometry = new PrimitiveSwerveOdometry(primitiveKinematics,
+            RigidTransform2.ZERO);
+    // Which odometry was updated last, so the other can catch up when switching
     @GuardedBy("kinematicsLock")
-    private Vector2 velocity = Vector2.ZERO;
-    @GuardedBy("kinematicsLock")
-    private double angularVelocity = 0.0;
+    private boolean primitiveOdometryActive = PRIMITIVE_KINEMATICS_DEFAULT;
+    private final Object poseHistoryLock = new Object();
+    @GuardedBy("poseHistoryLock")
+    private final PoseHistoryBuffer poseHistory = new PoseHistoryBuffer(POSE_HISTORY_CAPACITY);
+    private volatile KinematicState kinematicState = KinematicState.ZERO;
+    // Added to the odometry translation when following trajectories, set by the pose estimator. Replaced as a
+    // whole, so the main thread never takes kinematicsLock.
+    private final AtomicReference<PoseCorrection> poseCorrection = new AtomicReference<>(PoseCorrection.NONE);
 
     private final Object stateLock = new Object();
     @GuardedBy("stateLock")
@@ -121,12 +197,15 @@ public class DrivebaseSubsystem extends SubsystemBase implements UpdateManager.U
     private final NetworkTableEntry shootSpeed;
     private final NetworkTableEntry antiTip;
     private final NetworkTableEntry fieldCentric;
+    private final NetworkTableEntry primitiveKinematicsEntry;
     private final NetworkTableEntry poseSetX;
     private final NetworkTableEntry poseSetY;
     private final NetworkTableEntry poseSetAngle;
 
     private final Field2d field = new Field2d();
 
+    private SwerveDrivetrainSim drivetrainSim = null;
+
     private final PFFController<Vector2> tipController;
     private final VectorSlewLimiter accelLimiter;
 
@@ -226,6 +305,12 @@ public class DrivebaseSubsystem extends SubsystemBase implements UpdateManager.U
                 .withWidget(BuiltInWidgets.kToggleSwitch)
                 .getEntry();
 
+        primitiveKinematicsEntry = tab.add("Primitive Kinematics", PRIMITIVE_KINEMATICS_DEFAULT)
+                .withPosition(6, 2)
+                .withSize(2, 1)
+                .withWidget(BuiltInWidgets.kToggleSwitch)
+                .getEntry();
+
         tipController = PFFController.ofVector2(TIP_P, TIP_F).setTargetPosition(getGyroscopeXY())
                 .setTargetPositionTolerance(TIP_TOLERANCE);
 
@@ -273,16 +358,22 @@ public class DrivebaseSubsystem extends SubsystemBase implements UpdateManager.U
         }
     }
 
+    /**
+     * Returns the latest odometry snapshot without blocking the update thread. Callers that need more
+     * than one of the pose, velocity and angular velocity should read them from one snapshot.
+     *
+     * @return The latest kinematic state.
+     */
+    public KinematicState getKinematicState() {
+        return kinematicState;
+    }
+
     public RigidTransform2 getPose() {
-        synchronized (kinematicsLock) {
-            return pose;
-        }
+        return kinematicState.pose;
     }
 
     public Pose2d getPoseAsPoseMeters() {
-        synchronized (kinematicsLock) {
-            return GeoConvertor.rigidInchesToPoseMeters(pose);
-        }
+        return GeoConvertor.rigidInchesToPoseMeters(getPose());
     }
 
     public void setPose() {
@@ -292,22 +383,16 @@ public class DrivebaseSubsystem extends SubsystemBase implements UpdateManager.U
     }
 
     public Vector2 getVelocity() {
-        synchronized (kinematicsLock) {
-            return velocity;
-        }
+        return kinematicState.velocity;
     }
 
     public double getAngularVelocity() {
-        synchronized (kinematicsLock) {
-            return angularVelocity;
-        }
+        return kinematicState.angularVelocity;
     }
 
     public Rotation2 getAngle() {
-        synchronized (kinematicsLock) {
-            return Robot.getInstance().isCompetition() ? getPose().rotation.inverse()
-                    : getPose().rotation;
-        }
+        return Robot.getInstance().isCompetition() ? getPose().rotation.inverse()
+                : getPose().rotation;
     }
 
     public void drive(Vector2 translationalVelocity, double rotationalVelocity) {
@@ -322,18 +407,25 @@ public class DrivebaseSubsystem extends SubsystemBase implements UpdateManager.U
     }
 
     public void resetPose(Pose2d pose) {
-        synchronized (kinematicsLock) {
-            this.pose = GeoConvertor.poseToRigid(pose);
-            resetGyroAngle(GeoConvertor.rotation2dToRotation2(pose.getRotation()));
-            swerveOdometry.resetPose(this.pose);
-        }
+        resetPose(GeoConvertor.poseToRigid(pose));
     }
 
     public void resetPose(RigidTransform2 pose) {
         synchronized (kinematicsLock) {
-            this.pose = pose;
+            KinematicState state = kinematicState;
+            kinematicState = new KinematicState(pose, state.velocity, state.angularVelocity, state.timestamp);
             resetGyroAngle(pose.rotation);
             swerveOdometry.resetPose(pose);
+            primitiveOdometry.resetPose(pose);
+            // Only reset while holding kinematicsLock, so no reset is lost
+            poseCorrection.set(new PoseCorrection(Vector2.ZERO, poseCorrection.get().resetCount + 1));
+            // Poses from before the reset can't be compared with poses after it
+            synchronized (poseHistoryLock) {
+                poseHistory.clear();
+            }
+        }
+        if (drivetrainSim != null) {
+            drivetrainSim.resetPose(pose);
         }
     }
 
@@ -350,6 +442,33 @@ public class DrivebaseSubsystem extends SubsystemBase implements UpdateManager.U
 
     }
 
+    /**
+     * Sets the correction added to the odometry pose when following trajectories.
+     *
+     * @param correction
+     *            The translation to add, in inches.
+     * @param resetCount
+     *            The {@link #getPoseResetCount()} the correction was estimated since. The correction is
+     *            ignored if the pose was reset since then.
+     */
+    public void setPoseCorrection(Vector2 correction, int resetCount) {
+        PoseCorrection current = poseCorrection.get();
+        // Fails if a reset happened since the get, and the next get sees the new count
+        while (current.resetCount == resetCount
+                && !poseCorrection.compareAndSet(current, new PoseCorrection(correction, resetCount))) {
+            current = poseCorrection.get();
+        }
+    }
+
+    /**
+     * Returns the number of times the pose has been reset.
+     *
+     * @return The pose reset count.
+     */
+    public int getPoseResetCount() {
+        return poseCorrection.get().resetCount;
+    }
+
     public void resetGyroAngle(Rotation2 angle) {
         synchronized (sensorLock) {
             gyroscope.setAdjustmentAngle(
@@ -372,7 +491,13 @@ public class DrivebaseSubsystem extends SubsystemBase implements UpdateManager.U
         return averageVelocity / 4;
     }
 
-    private void updateOdometry(double time, double dt) {
+    // Package-private so it can be benchmarked on its own
+    void updateOdometry(double time, double dt) {
+        if (getPrimitiveKinematics()) {
+            updatePrimitiveOdometry(time, dt);
+            return;
+        }
+
         Vector2[] moduleVelocities = new Vector2[modules.length];
         for (int i = 0; i < modules.length; i++) {
             var module = modules[i];
@@ -389,18 +514,65 @@ public class DrivebaseSubsystem extends SubsystemBase implements UpdateManager.U
         ChassisVelocity velocity = swerveKinematics.toChassisVelocity(moduleVelocities);
 
         synchronized (kinematicsLock) {
+            if (primitiveOdometryActive) {
+                swerveOdometry.resetPose(kinematicState.pose);
+                primitiveOdometryActive = false;
+            }
+            RigidTransform2 pose = swerveOdometry.update(angle, dt, moduleVelocities);
+            synchronized (poseHistoryLock) {
+                poseHistory.add(time, pose);
+            }
+            kinematicState = new KinematicState(pose, velocity.getTranslationalVelocity(),
+                    velocity.getAngularVelocity(), time);
+        }
+    }
+
+    /**
+     * Same as the 2910 odometry in {@link #updateOdometry(double, double)}, but only allocates the
+     * published {@link KinematicState}.
+     */
+    private void updatePrimitiveOdometry(double time, double dt) {
+        for (int i = 0; i < modules.length; i++) {
+            var module = modules[i];
+
+            double steerAngle = module.getSteerAngle();
+            double speed = module.getDriveVelocity() * 39.37008;
+            moduleVelocityX[i] = Math.cos(steerAngle) * speed;
+            moduleVelocityY[i] = Math.sin(steerAngle) * speed;
+        }
+
+        Rotation2 gyroAngle;
+        synchronized (sensorLock) {
+            gyroAngle = gyroscope.getAngle();
+        }
+        // Inverse of the gyro angle
+        double cos = gyroAngle.cos;
+        double sin = -gyroAngle.sin;
 
-            this.pose = swerveOdometry.update(angle, dt, moduleVelocities);
-            if (latencyCompensationMap.size() > MAX_LATENCY_COMPENSATION_MAP_ENTRIES) {
-                latencyCompensationMap.remove(latencyCompensationMap.firstKey());
+        synchronized (kinematicsLock) {
+            if (!primitiveOdometryActive) {
+                primitiveOdometry.resetPose(kinematicState.pose);
+                primitiveOdometryActive = true;
             }
-            latencyCompensationMap.put(new InterpolatingDouble(time), pose);
-            this.velocity = velocity.getTranslationalVelocity();
-            this.angularVelocity = velocity.getAngularVelocity();
+            primitiveOdometry.update(cos, sin, dt, moduleVelocityX, moduleVelocityY);
+            double x = primitiveOdometry.getX();
+            double y = primitiveOdometry.getY();
+            synchronized (poseHistoryLock) {
+                poseHistory.add(time, x, y, cos, sin);
+            }
+            kinematicState = new KinematicState(
+                    new RigidTransform2(new Vector2(x, y), new Rotation2(cos, sin, false)),
+                    new Vector2(primitiveOdometry.getVelocityX(), primitiveOdometry.getVelocityY()),
+                    primitiveOdometry.getAngularVelocity(), time);
         }
     }
 
     public void updateModules(HolonomicDriveSignal driveSignal) {
+        if (getPrimitiveKinematics()) {
+            updatePrimitiveModules(driveSignal);
+            return;
+        }
+
         ChassisVelocity chassisVelocity;
         if (driveSignal == null) {
             chassisVelocity = new ChassisVelocity(Vector2.ZERO, 0.0);
@@ -428,6 +600,41 @@ public class DrivebaseSubsystem extends SubsystemBase implements UpdateManager.U
         }
     }
 
+    /**
+     * Same as {@link #updateModules(HolonomicDriveSignal)}, without allocating.
+     */
+    private void updatePrimitiveModules(HolonomicDriveSignal driveSignal) {
+        double vx = 0, vy = 0, omega = 0;
+        if (driveSignal != null) {
+            Vector2 translation = driveSignal.getTranslation();
+            if (fieldCentric.getBoolean(true)) {
+                // Same operation order as translation.rotateBy(getAngle())
+                Rotation2 angle = getAngle();
+                vx = translation.x * angle.cos - translation.y * angle.sin;
+                vy = translation.x * angle.sin + translation.y * angle.cos;
+            } else {
+                vx = translation.x;
+                vy = translation.y;
+            }
+            omega = driveSignal.getRotation();
+        }
+
+        primitiveKinematics.toModuleVelocities(vx, vy, omega, moduleOutputX, moduleOutputY);
+        primitiveKinematics.normalizeModuleVelocities(moduleOutputX, moduleOutputY, 1);
+
+        if (driveSignal != null && driveSignal.getTranslation().length <= 0.01 && driveSignal.getRotation() == 0) {
+            setToX();
+            return;
+        }
+
+        for (int i = 0; i < modules.length; i++) {
+            var module = modules[i];
+            double x = moduleOutputX[i];
+            double y = moduleOutputY[i];
+            module.set(Math.hypot(x, y) * 12.0, PrimitiveSwerveKinematics.getModuleAngle(x, y));
+        }
+    }
+
     public void setToX() {
         modules[0].set(0, Math.toRadians(45));
         modules[1].set(0, Math.toRadians(-45));
@@ -448,11 +655,9 @@ public class DrivebaseSubsystem extends SubsystemBase implements UpdateManager.U
     }
 
     public RigidTransform2 getPoseAtTime(double timestamp) {
-        synchronized (kinematicsLock) {
-            if (latencyCompensationMap.isEmpty()) {
-                return RigidTransform2.ZERO;
-            }
-            return latencyCompensationMap.getInterpolated(new InterpolatingDouble(timestamp));
+        synchronized (poseHistoryLock) {
+            // The history is empty until the first update after a reset, the reset pose is the best guess
+            return poseHistory.get(timestamp, kinematicState.pose);
         }
     }
 
@@ -461,10 +666,16 @@ public class DrivebaseSubsystem extends SubsystemBase implements UpdateManager.U
         updateOdometry(time, dt);
 
         HolonomicDriveSignal signal;
+        KinematicState state = kinematicState;
+        RigidTransform2 followPose = state.pose;
+        Vector2 correction = poseCorrection.get().correction;
+        if (correction != Vector2.ZERO) {
+            followPose = new RigidTransform2(followPose.translation.add(correction), followPose.rotation);
+        }
         Optional<HolonomicDriveSignal> trajectorySignal = follower.update(
-                getPose(),
-                getVelocity(),
-                getAngularVelocity(),
+                followPose,
+                state.velocity,
+                state.angularVelocity,
                 time,
                 dt);
         if (trajectorySignal.isPresent()) {
@@ -491,16 +702,35 @@ public class DrivebaseSubsystem extends SubsystemBase implements UpdateManager.U
 
     @Override
     public void periodic() {
-        // Pose2d pose = getPoseAsPoseMeters();
-        synchronized (kinematicsLock) {
-            odometryXEntry.setDouble(Units.inchesToMeters(pose.translation.x));
-            odometryYEntry.setDouble(Units.inchesToMeters(pose.translation.y));
-            odometryAngleEntry.setDouble(pose.rotation.toDegrees());
-        }
+        RigidTransform2 pose = getPose();
+        odometryXEntry.setDouble(Units.inchesToMeters(pose.translation.x));
+        odometryYEntry.setDouble(Units.inchesToMeters(pose.translation.y));
+        odometryAngleEntry.setDouble(pose.rotation.toDegrees());
         // System.out.println(pose);
-        Pose2d pose = getPoseAsPoseMeters();
-        field.setRobotPose(pose);
+        field.setRobotPose(GeoConvertor.rigidInchesToPoseMeters(pose));
+        if (drivetrainSim != null) {
+            field.getObject("Simulated Robot").setPose(GeoConvertor.rigidInchesToPoseMeters(drivetrainSim.getPose()));
+        }
+    }
 
+    public void simInit(PhysicsSim sim) {
+        // Simulated devices with the same IDs share their state, so these see the modules' motors and the gyro
+        DoubleConsumer gyroYaw;
+        synchronized (sensorLock) {
+            if (gyroscope instanceof PigeonTwo) {
+                BasePigeonSimCollection pigeon = new Pigeon2(GYRO_PORT, Hardware.DRIVETRAIN_INTAKE_CAN_BUS_NAME)
+                        .getSimCollection();
+                gyroYaw = pigeon::setRawHeading;
+            } else {
+                // The navX yaw is clockwise positive
+                SimDouble navXYaw = new SimDeviceSim("navX-Sensor", SerialPort.Port.kMXP.value).getDouble("Yaw");
+                gyroYaw = yaw -> navXYaw.set(-yaw);
+            }
+        }
+        drivetrainSim = new SwerveDrivetrainSim(
+                new Mk4Configuration[] { FRONT_LEFT_CONFIG, FRONT_RIGHT_CONFIG, BACK_LEFT_CONFIG, BACK_RIGHT_CONFIG },
+                primitiveKinematics, gyroYaw);
+        sim.addSimProfile(drivetrainSim);
     }
 
     public HolonomicMotionProfiledTrajectoryFollower getFollower() {
@@ -518,4 +748,8 @@ public class DrivebaseSubsystem extends SubsystemBase implements UpdateManager.U
     public boolean getAntiTip() {
         return antiTip.getBoolean(false);
     }
+
+    public boolean getPrimitiveKinematics() {
+        return primitiveKinematicsEntry.getBoolean(PRIMITIVE_KINEMATICS_DEFAULT);
+    }
 }
@@ -3,6 +3,7 @@ package frc.team2412.robot.subsystem;
 import static frc.team2412.robot.subsystem.IndexSubsystem.IndexConstants.*;
 import static frc.team2412.robot.Hardware.*;
 
+import com.ctre.phoenix.motorcontrol.ControlMode;
 import com.ctre.phoenix.motorcontrol.NeutralMode;
 import com.ctre.phoenix.motorcontrol.SupplyCurrentLimitConfiguration;
 import com.ctre.phoenix.motorcontrol.can.WPI_TalonFX;
@@ -11,6 +12,8 @@ import edu.wpi.first.wpilibj.DigitalInput;
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.team2412.robot.sim.PhysicsSim;
+import frc.team2412.robot.util.StatusFrameProfile;
+import frc.team2412.robot.util.MotorOutputCache;
 import io.github.oblarg.oblog.annotations.Config;
 import io.github.oblarg.oblog.Loggable;
 import io.github.oblarg.oblog.annotations.Log;
@@ -51,6 +54,9 @@ public class IndexSubsystem extends SubsystemBase implements Loggable {
     @Log.MotorController
     private final WPI_TalonFX feederMotor;
 
+    private final MotorOutputCache ingestOutput = new MotorOutputCache();
+    private final MotorOutputCache feederOutput = new MotorOutputCache();
+
     // Sensor Override
 
     public boolean ignoreFeeder = false;
@@ -75,6 +81,9 @@ public class IndexSubsystem extends SubsystemBase implements Loggable {
 
         feederMotor.setInverted(true);
 
+        StatusFrameProfile.OPEN_LOOP_ROLLER.apply("Index ingest", ingestMotor);
+        StatusFrameProfile.OPEN_LOOP_ROLLER.apply("Index feeder", feederMotor);
+
         ingestMotorStop();
         feederMotorStop();
     }
@@ -88,58 +97,70 @@ public class IndexSubsystem extends SubsystemBase implements Loggable {
 
     public void setSpeed(double ingestSpeed, double feederSpeed) {
         System.out.println(ingestSpeed);
-        ingestMotor.set(ingestSpeed);
-        feederMotor.set(feederSpeed);
+        setIngestSpeed(ingestSpeed);
+        setFeederSpeed(feederSpeed);
+    }
+
+    private void setIngestSpeed(double speed) {
+        if (ingestOutput.shouldSend(ControlMode.PercentOutput, speed)) {
+            ingestMotor.set(speed);
+        }
+    }
+
+    private void setFeederSpeed(double speed) {
+        if (feederOutput.shouldSend(ControlMode.PercentOutput, speed)) {
+            feederMotor.set(speed);
+        }
     }
 
     /**
      * Spins first motor inward and updates first motor state
      */
     public void ingestMotorIn() {
-        ingestMotor.set(INDEX_IN_SPEED);
+        setIngestSpeed(INDEX_IN_SPEED);
     }
 
     /**
      * Spins first motor outward and updates first motor state
      */
     public void ingestMotorOut() {
-        ingestMotor.set(INDEX_OUT_SPEED);
+        setIngestSpeed(INDEX_OUT_SPEED);
     }
 
     /**
      * Stops first motor and updates first motor state
      */
     public void ingestMotorStop() {
-        ingestMotor.set(0);
+        setIngestSpeed(0);
     }
 
     public void ingestMotorShoot() {
-        ingestMotor.set(INDEX_INGEST_SHOOT_SPEED);
+        setIngestSpeed(INDEX_INGEST_SHOOT_SPEED);
     }
 
     public void feederMotorShoot() {
-        feederMotor.set(INDEX_FEEDER_SHOOT_SPEED);
+        setFeederSpeed(INDEX_FEEDER_SHOOT_SPEED);
     }
 
     /**
      * Spins second motor inward and updates second motor state
      */
     public void feederMotorIn() {
-        feederMotor.set(INDEX_FEEDER_SPEED);
+        setFeederSpeed(INDEX_FEEDER_SPEED);
     }
 
     /**
      * Spins second motor outward and updates second motor state
      */
     public void feederMotorOut() {
-        feederMotor.set(INDEX_OUT_SPEED);
+        setFeederSpeed(INDEX_OUT_SPEED);
     }
 
     /**
      * Stops second motor and updates second motor state
      */
     public void feederMotorStop() {
-        feederMotor.set(0);
+        setFeederSpeed(0);
     }
 
     /**
@@ -4,6 +4,7 @@ import static frc.team2412.robot.subsystem.IntakeSubsystem.IntakeConstants.*;
 import static frc.team2412.robot.subsystem.IntakeSubsystem.IntakeConstants.IntakeSolenoidState.*;
 import static frc.team2412.robot.Hardware.*;
 
+import com.ctre.phoenix.motorcontrol.ControlMode;
 import com.ctre.phoenix.motorcontrol.NeutralMode;
 import com.ctre.phoenix.motorcontrol.SupplyCurrentLimitConfiguration;
 import com.ctre.phoenix.motorcontrol.can.WPI_TalonFX;
@@ -14,6 +15,8 @@ import edu.wpi.first.wpilibj.PneumaticsModuleType;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.team2412.robot.Hardware;
 import frc.team2412.robot.sim.PhysicsSim;
+import frc.team2412.robot.util.StatusFrameProfile;
+import frc.team2412.robot.util.MotorOutputCache;
 import io.github.oblarg.oblog.Loggable;
 import io.github.oblarg.oblog.annotations.Config;
 import io.github.oblarg.oblog.annotations.Log;
@@ -51,6 +54,9 @@ public class IntakeSubsystem extends SubsystemBase implements Loggable {
     private final WPI_TalonFX motorOuter;
     private final WPI_TalonFX motorInner;
 
+    private final MotorOutputCache outerOutput = new MotorOutputCache();
+    private final MotorOutputCache innerOutput = new MotorOutputCache();
+
     private final DoubleSolenoid solenoid;
 
     private final DigitalInput ingestProximity;
@@ -80,6 +86,9 @@ public class IntakeSubsystem extends SubsystemBase implements Loggable {
             motorInner.setInverted(false);
         }
 
+        StatusFrameProfile.OPEN_LOOP_ROLLER.apply("Intake outer", motorOuter);
+        StatusFrameProfile.OPEN_LOOP_ROLLER.apply("Intake inner", motorInner);
+
         solenoid = new DoubleSolenoid(PNEUMATIC_HUB, PneumaticsModuleType.REVPH, INTAKE_SOLENOID_UP,
                 INTAKE_SOLENOID_DOWN);
 
@@ -108,8 +117,12 @@ public class IntakeSubsystem extends SubsystemBase implements Loggable {
     }
 
     public void setSpeed(double outerSpeed, double innerSpeed) {
-        motorOuter.set(outerSpeed);
-        motorInner.set(innerSpeed);
+        if (outerOutput.shouldSend(ControlMode.PercentOutput, outerSpeed)) {
+            motorOuter.set(outerSpeed);
+        }
+        if (innerOutput.shouldSend(ControlMode.PercentOutput, innerSpeed)) {
+            motorInner.set(innerSpeed);
+        }
     }
 
     /**
@@ -136,8 +149,12 @@ public class IntakeSubsystem extends SubsystemBase implements Loggable {
      * Stops motor and updates motor state
      */
     public void intakeStop() {
-        motorOuter.stopMotor();
-        motorInner.stopMotor();
+        if (outerOutput.shouldSend(ControlMode.Disabled, 0)) {
+            motorOuter.stopMotor();
+        }
+        if (innerOutput.shouldSend(ControlMode.Disabled, 0)) {
+            motorInner.stopMotor();
+        }
     }
 
     /**
@@ -0,0 +1,188 @@
+package frc.team2412.robot.subsystem;
+
+import static frc.team2412.robot.subsystem.PoseEstimator.PoseEstimatorConstants.*;
+
+import org.frcteam2910.common.math.RigidTransform2;
+import org.frcteam2910.common.math.Vector2;
+
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.team2412.robot.Robot;
+import frc.team2412.robot.subsystem.ShooterVisionSubsystem.VisionSnapshot;
+import frc.team2412.robot.util.GeoConvertor;
+import io.github.oblarg.oblog.Loggable;
+import io.github.oblarg.oblog.annotations.Config;
+import io.github.oblarg.oblog.annotations.Log;
+
+/**
+ * Estimates the robot's field pose by fusing drivebase odometry with hub vision.
+ *
+ * The heading comes from the gyro, so the filter only estimates a translation correction that is added
+ * to the odometry. That makes it a linear Kalman filter with an isotropic covariance: the variance grows
+ * with the distance the odometry reports driving, and shrinks with each vision observation.
+ *
+ * Vision observations are compared against the odometry pose from when the frame was captured (from the
+ * drivebase's latency compensation history). Because the correction is an offset on top of the
+ * odometry, applying it at the capture time and replaying the odometry since then to now gives the same
+ * result as adding it to the current odometry pose.
+ *
+ * With "Correct drivebase" on, the correction is passed to the drivebase, which follows trajectories
+ * from the estimated pose. Aiming only uses how far the robot moved since a frame was captured, which the
+ * correction doesn't change. The estimate starts over whenever the drivebase pose is reset.
+ */
+public class PoseEstimator extends SubsystemBase implements Loggable {
+    public static class PoseEstimatorConstants {
+        // Dimensions are in inches, in the odometry (field) frame
+        public static final Vector2 HUB_POSITION = new Vector2(27 * 12, 13.5 * 12);
+
+        // Variances are in square inches
+        public static final double INITIAL_VARIANCE = 4;
+        public static final double ODOMETRY_VARIANCE_PER_INCH = 0.02;
+        public static final double VISION_VARIANCE = 36;
+
+        // Squared Mahalanobis distance to reject vision observations at, 99.9% for 2 degrees of freedom
+        public static final double OUTLIER_THRESHOLD = 13.8;
+
+        public static final boolean VISION_CORRECTION_DEFAULT = true;
+
+        public static final boolean CORRECT_DRIVEBASE_DEFAULT = false;
+    }
+
+    @Log.Exclude
+    @Config.Exclude
+    private final DrivebaseSubsystem drivebaseSubsystem;
+
+    @Log.Exclude
+    @Config.Exclude
+    private final TargetLocalizer targetLocalizer;
+
+    private Vector2 correction = Vector2.ZERO;
+    private double variance = INITIAL_VARIANCE;
+    private Vector2 lastOdometryTranslation;
+    // tl has never been written if this is 0
+    private long lastFrameId = 0;
+    private boolean visionCorrection = VISION_CORRECTION_DEFAULT;
+    private boolean correctDrivebase = CORRECT_DRIVEBASE_DEFAULT;
+    private int poseResetCount;
+
+    @Log(name = "Rejected observations")
+    private int rejectedObservations = 0;
+
+    /**
+     * Creates a new {@link PoseEstimator}.
+     *
+     * @param drivebaseSubsystem
+     *            The drivebase subsystem, for odometry.
+     * @param targetLocalizer
+     *            The target localizer, for vision.
+     */
+    public PoseEstimator(DrivebaseSubsystem drivebaseSubsystem, TargetLocalizer targetLocalizer) {
+        this.drivebaseSubsystem = drivebaseSubsystem;
+        this.targetLocalizer = targetLocalizer;
+        this.lastOdometryTranslation = drivebaseSubsystem.getPose().translation;
+        this.poseResetCount = drivebaseSubsystem.getPoseResetCount();
+    }
+
+    @Override
+    public void periodic() {
+        int resetCount = drivebaseSubsystem.getPoseResetCount();
+        if (resetCount != poseResetCount) {
+            poseResetCount = resetCount;
+            reset();
+        }
+        predict();
+        if (visionCorrection && targetLocalizer.hasTarget()) {
+            VisionSnapshot frame = targetLocalizer.getVisionFrame();
+            // Each frame is only one observation, even though it's the snapshot for several loops
+            if (frame.frameId != lastFrameId) {
+                lastFrameId = frame.frameId;
+                correct(frame);
+            }
+        }
+        drivebaseSubsystem.setPoseCorrection(correctDrivebase ? correction : Vector2.ZERO, poseResetCount);
+        Robot.getInstance().field.getObject("Estimated pose")
+                .setPose(GeoConvertor.rigidInchesToPoseMeters(getPose()));
+    }
+
+    /**
+     * Grows the variance by how far the odometry moved since the last loop.
+     */
+    private void predict() {
+        Vector2 odometryTranslation = drivebaseSubsystem.getPose().translation;
+        double distance = odometryTranslation.subtract(lastOdometryTranslation).length;
+        lastOdometryTranslation = odometryTranslation;
+        variance += distance * ODOMETRY_VARIANCE_PER_INCH;
+    }
+
+    /**
+     * Corrects the estimate with a vision frame.
+     */
+    private void correct(VisionSnapshot frame) {
+        // Where vision says the robot was minus where the estimate says it was, at the capture time. The
+        // odometry pose at the capture time cancels out, leaving the hub position error.
+        Vector2 innovation = HUB_POSITION.subtract(targetLocalizer.getOdometryHubTranslation(frame))
+                .subtract(correction);
+        double innovationVariance = variance + VISION_VARIANCE;
+        if (innovation.dot(innovation) / innovationVariance > OUTLIER_THRESHOLD) {
+            rejectedObservations++;
+            return;
+        }
+        double gain = variance / innovationVariance;
+        correction = correction.add(innovation.scale(gain));
+        variance *= 1 - gain;
+    }
+
+    /**
+     * Clears the vision correction, trusting the odometry pose again. Called automatically when the
+     * drivebase pose is reset.
+     */
+    public void reset() {
+        correction = Vector2.ZERO;
+        variance = INITIAL_VARIANCE;
+        lastOdometryTranslation = drivebaseSubsystem.getPose().translation;
+    }
+
+    /**
+     * Returns the estimated field pose.
+     *
+     * @return The odometry pose with the vision correction applied (translation in inches).
+     */
+    public RigidTransform2 getPose() {
+        RigidTransform2 odometryPose = drivebaseSubsystem.getPose();
+        return new RigidTransform2(odometryPose.translation.add(correction), odometryPose.rotation);
+    }
+
+    @Log(name = "Estimated X")
+    public double getX() {
+        return getPose().translation.x;
+    }
+
+    @Log(name = "Estimated Y")
+    public double getY() {
+        return getPose().translation.y;
+    }
+
+    @Log(name = "Correction X")
+    public double getCorrectionX() {
+        return correction.x;
+    }
+
+    @Log(name = "Correction Y")
+    public double getCorrectionY() {
+        return correction.y;
+    }
+
+    @Log(name = "Std dev")
+    public double getStandardDeviation() {
+        return Math.sqrt(variance);
+    }
+
+    @Config.ToggleSwitch(name = "Vision correction", defaultValue = VISION_CORRECTION_DEFAULT)
+    public void setVisionCorrection(boolean correct) {
+        visionCorrection = correct;
+    }
+
+    @Config.ToggleSwitch(name = "Correct drivebase", defaultValue = CORRECT_DRIVEBASE_DEFAULT)
+    public void setCorrectDrivebase(boolean correct) {
+        correctDrivebase = correct;
+    }
+}
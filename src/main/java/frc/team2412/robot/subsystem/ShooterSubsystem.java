@@ -19,11 +19,20 @@ import com.revrobotics.SparkMaxPIDController;
 
 import edu.wpi.first.math.controller.SimpleMotorFeedforward;
 import edu.wpi.first.wpilibj.Filesystem;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.team2412.robot.Robot;
 import frc.team2412.robot.sim.PhysicsSim;
 import frc.team2412.robot.sim.SparkMaxSimProfile.SparkMaxConstants;
+import frc.team2412.robot.util.DoubleHistoryBuffer;
 import frc.team2412.robot.util.InterpolatingTreeMap;
+import frc.team2412.robot.util.ShooterDataReloader;
+import frc.team2412.robot.util.ShooterDataTable;
+import frc.team2412.robot.util.ShotGrid;
+import frc.team2412.robot.util.ShotGridGenerator.ShotGridConstants;
+import frc.team2412.robot.util.StatusFrameProfile;
+import frc.team2412.robot.util.TimeOfFlightTable;
+import frc.team2412.robot.util.MotorOutputCache;
 import io.github.oblarg.oblog.Loggable;
 import io.github.oblarg.oblog.annotations.Config;
 import io.github.oblarg.oblog.annotations.Log;
@@ -69,6 +78,8 @@ public class ShooterSubsystem extends SubsystemBase implements Loggable {
         public static final double STARTING_TURRET_ANGLE = 0;
         public static final double TURRET_ANGLE_TOLERANCE = 2;
         public static final int TURRET_SLOT_ID = 0;
+        // One second of turret history at the robot loop rate
+        public static final int TURRET_HISTORY_SIZE = 50;
 
         public static final double MIN_TURRET_ANGLE = -270;
         public static final double MAX_TURRET_ANGLE = 90;
@@ -80,12 +91,39 @@ public class ShooterSubsystem extends SubsystemBase implements Loggable {
                 true, 20, 20, 0.5);
         public static final SupplyCurrentLimitConfiguration TURRET_CURRENT_LIMIT = new SupplyCurrentLimitConfiguration(
                 true, 10, 10, 0.5);
-        public static final InterpolatingTreeMap DATA_POINTS = InterpolatingTreeMap
-                .fromCSV(new File(Filesystem.getDeployDirectory(), "shooterData.csv").getPath());
+        public static final String DATA_FILE = new File(Filesystem.getDeployDirectory(), "shooterData.csv")
+                .getPath();
+        // Loaded at startup, use ShooterSubsystem.getDataTable() for the newest reloaded table
+        public static final InterpolatingTreeMap DATA_POINTS = InterpolatingTreeMap.fromCSV(DATA_FILE);
+        public static final ShooterDataTable DATA_TABLE = DATA_POINTS != null ? new ShooterDataTable(DATA_POINTS)
+                : null;
+        public static final TimeOfFlightTable TIME_OF_FLIGHT_TABLE = TimeOfFlightTable
+                .fromCSV(new File(Filesystem.getDeployDirectory(), "shooterTimeOfFlight.csv").getPath());
+        public static final ShotGrid SHOT_GRID = ShotGrid
+                .fromFile(new File(Filesystem.getDeployDirectory(), ShotGridConstants.FILE_NAME).getPath());
 
         public static final double BATTERY_VOLTAGE = 12.6;
     }
 
+    /**
+     * Motor signals sampled once per loop, so every getter in the loop reads the same values without
+     * another CAN call.
+     */
+    public static class ShooterState {
+        /** FPGA time the signals were last sampled, in seconds. */
+        public double timestamp;
+        /** Flywheel velocity, in encoder ticks per 100ms. */
+        public double flywheelVelocity;
+        /** Flywheel closed loop error, in encoder ticks per 100ms. */
+        public double flywheelClosedLoopError;
+        /** Turret position, in encoder ticks. */
+        public double turretPosition;
+        /** Hood position, in motor revolutions. */
+        public double hoodPosition;
+        /** Flywheel motor temperatures, in degrees Celsius. */
+        public double flywheel1Temperature, flywheel2Temperature;
+    }
+
     /* INSTANCE VARIABLES */
 
     private final WPI_TalonFX flywheelMotor1;
@@ -99,6 +137,16 @@ public class ShooterSubsystem extends SubsystemBase implements Loggable {
 
     private final SimpleMotorFeedforward flywheelFF;
 
+    private final DoubleHistoryBuffer turretAngleHistory = new DoubleHistoryBuffer(TURRET_HISTORY_SIZE);
+
+    private final ShooterState state = new ShooterState();
+
+    private final MotorOutputCache flywheelOutput = new MotorOutputCache();
+    private final MotorOutputCache turretOutput = new MotorOutputCache();
+    private final MotorOutputCache hoodOutput = new MotorOutputCache();
+
+    private final ShooterDataReloader dataReloader = new ShooterDataReloader(DATA_FILE, DATA_TABLE);
+
     public boolean shooterOverride = false;
     public boolean turretDisable = false;
 
@@ -125,6 +173,8 @@ public class ShooterSubsystem extends SubsystemBase implements Loggable {
         this.hoodPID = hoodMotor.getPIDController();
         configMotors();
         flywheelFF = new SimpleMotorFeedforward(0.735, 0.1193, 0.0056666);
+        refreshState();
+        dataReloader.start();
     }
 
     /* FUNCTIONS */
@@ -183,10 +233,81 @@ public class ShooterSubsystem extends SubsystemBase implements Loggable {
         hoodMotor.enableVoltageCompensation(BATTERY_VOLTAGE);
 
         resetHoodEncoder(true);
+
+        StatusFrameProfile.VELOCITY_FLYWHEEL.apply("Flywheel 1", flywheelMotor1);
+        StatusFrameProfile.FOLLOWER.apply("Flywheel 2", flywheelMotor2);
+        StatusFrameProfile.POSITION_TURRET.apply("Turret", turretMotor);
+        StatusFrameProfile.SPARK_POSITION.apply("Hood", hoodMotor);
     }
 
     @Override
     public void periodic() {
+        refreshState();
+        turretAngleHistory.add(state.timestamp, getTurretAngle());
+    }
+
+    /**
+     * Samples every motor signal into the state. Called at the start of each loop, before commands run.
+     */
+    public void refreshState() {
+        state.timestamp = Timer.getFPGATimestamp();
+        refreshFlywheel();
+        refreshTurret();
+        refreshHood();
+        state.flywheel1Temperature = flywheelMotor1.getTemperature();
+        state.flywheel2Temperature = flywheelMotor2.getTemperature();
+    }
+
+    /**
+     * Re-reads the flywheel velocity and closed loop error, for callers that can't wait for the next loop.
+     */
+    public void refreshFlywheel() {
+        state.flywheelVelocity = flywheelMotor1.getSelectedSensorVelocity();
+        state.flywheelClosedLoopError = flywheelMotor1.getClosedLoopError();
+    }
+
+    /**
+     * Re-reads the turret position, for callers that can't wait for the next loop.
+     */
+    public void refreshTurret() {
+        state.turretPosition = turretMotor.getSelectedSensorPosition();
+    }
+
+    /**
+     * Re-reads the hood position, for callers that can't wait for the next loop.
+     */
+    public void refreshHood() {
+        state.hoodPosition = hoodEncoder.getPosition();
+    }
+
+    /**
+     * Returns the motor signals sampled this loop. Should not be modified.
+     *
+     * @return The shooter state.
+     */
+    public ShooterState getState() {
+        return state;
+    }
+
+    /**
+     * Returns the newest shooter data table, reloaded whenever the CSV in the deploy directory changes.
+     * Safe to call from any thread.
+     *
+     * @return The shooter data table, or null if it couldn't be loaded.
+     */
+    public ShooterDataTable getDataTable() {
+        return dataReloader.getTable();
+    }
+
+    /**
+     * Returns how many times the shooter data table has been reloaded since startup. Anything
+     * precomputed from the deployed CSV is stale once this is nonzero.
+     *
+     * @return The number of reloads.
+     */
+    @Log(name = "Data table reloads")
+    public int getDataTableGeneration() {
+        return dataReloader.getGeneration();
     }
 
     public void simInit(PhysicsSim sim) {
@@ -265,7 +386,9 @@ public class ShooterSubsystem extends SubsystemBase implements Loggable {
      * Stops both flywheel motors.
      */
     public void stopFlywheel() {
-        flywheelMotor1.stopMotor();
+        if (flywheelOutput.shouldSend(ControlMode.Disabled, 0)) {
+            flywheelMotor1.stopMotor();
+        }
     }
 
     @Config.NumberSlider(name = "Flywheel test RPM", columnIndex = 5, rowIndex = 0, min = 0, max = 4000)
@@ -308,7 +431,7 @@ public class ShooterSubsystem extends SubsystemBase implements Loggable {
      */
     @Log(name = "RPM error", columnIndex = 9, rowIndex = 0)
     public double getFlywheelRPMError() {
-        return -flywheelMotor1.getClosedLoopError() / FLYWHEEL_RPM_TO_VELOCITY;
+        return -state.flywheelClosedLoopError / FLYWHEEL_RPM_TO_VELOCITY;
     }
 
     /**
@@ -322,8 +445,10 @@ public class ShooterSubsystem extends SubsystemBase implements Loggable {
         double rps = velocity / 2048 * 10;
         double feedForward = flywheelFF.calculate(rps) / Robot.getInstance().getVoltage() - FLYWHEEL_FEEDFORWARD_OFFSET;
 
-        flywheelMotor1.set(ControlMode.Velocity, velocity, DemandType.ArbitraryFeedForward,
-                feedForward);
+        if (flywheelOutput.shouldSend(ControlMode.Velocity, velocity, feedForward)) {
+            flywheelMotor1.set(ControlMode.Velocity, velocity, DemandType.ArbitraryFeedForward,
+                    feedForward);
+        }
     }
 
     /**
@@ -332,7 +457,7 @@ public class ShooterSubsystem extends SubsystemBase implements Loggable {
      * @return The velocity of the flywheel motors.
      */
     public double getFlywheelVelocity() {
-        return flywheelMotor1.getSelectedSensorVelocity();
+        return state.flywheelVelocity;
     }
 
     // Hood
@@ -342,6 +467,7 @@ public class ShooterSubsystem extends SubsystemBase implements Loggable {
     public void stopHoodMotor() {
         setHoodAngle(0);
         hoodMotor.stopMotor();
+        hoodOutput.invalidate();
     }
 
     @Config.NumberSlider(name = "Hood test angle", columnIndex = 5, rowIndex = 1, min = 0, max = MAX_HOOD_ANGLE)
@@ -366,7 +492,10 @@ public class ShooterSubsystem extends SubsystemBase implements Loggable {
         degrees = Math.min(Math.max(degrees, MIN_HOOD_ANGLE), MAX_HOOD_ANGLE);
 
         targetHoodAngle = degrees;
-        hoodPID.setReference(targetHoodAngle / HOOD_REVS_TO_DEGREES, CANSparkMax.ControlType.kPosition);
+        double reference = targetHoodAngle / HOOD_REVS_TO_DEGREES;
+        if (hoodOutput.shouldSend(CANSparkMax.ControlType.kPosition, reference)) {
+            hoodPID.setReference(reference, CANSparkMax.ControlType.kPosition);
+        }
 
     }
 
@@ -377,7 +506,7 @@ public class ShooterSubsystem extends SubsystemBase implements Loggable {
      */
     @Log(name = "Hood angle", columnIndex = 7, rowIndex = 1)
     public double getHoodAngle() {
-        return hoodEncoder.getPosition() * HOOD_REVS_TO_DEGREES;
+        return state.hoodPosition * HOOD_REVS_TO_DEGREES;
     }
 
     /**
@@ -399,6 +528,7 @@ public class ShooterSubsystem extends SubsystemBase implements Loggable {
     public void resetHoodEncoder(boolean reset) {
         if (reset) {
             hoodEncoder.setPosition(0);
+            state.hoodPosition = 0;
         }
     }
 
@@ -419,7 +549,10 @@ public class ShooterSubsystem extends SubsystemBase implements Loggable {
         }
 
         if (MIN_TURRET_ANGLE <= angle && angle <= MAX_TURRET_ANGLE) {
-            turretMotor.set(ControlMode.Position, TURRET_DEGREES_TO_ENCODER_TICKS * angle);
+            double position = TURRET_DEGREES_TO_ENCODER_TICKS * angle;
+            if (turretOutput.shouldSend(ControlMode.Position, position)) {
+                turretMotor.set(ControlMode.Position, position);
+            }
         }
     }
 
@@ -458,7 +591,18 @@ public class ShooterSubsystem extends SubsystemBase implements Loggable {
      */
     @Log(name = "Turret angle", columnIndex = 7, rowIndex = 2)
     public double getTurretAngle() {
-        return turretMotor.getSelectedSensorPosition() / TURRET_DEGREES_TO_ENCODER_TICKS;
+        return state.turretPosition / TURRET_DEGREES_TO_ENCODER_TICKS;
+    }
+
+    /**
+     * Gets the angle of the turret motor at a past time, interpolated from the angles recorded each loop.
+     *
+     * @param timestamp
+     *            The FPGA time in seconds.
+     * @return Angle, in degrees. Times older than the recorded history return the oldest angle.
+     */
+    public double getTurretAngleAtTime(double timestamp) {
+        return turretAngleHistory.isEmpty() ? getTurretAngle() : turretAngleHistory.get(timestamp, 0);
     }
 
     /**
@@ -480,6 +624,8 @@ public class ShooterSubsystem extends SubsystemBase implements Loggable {
     public void resetTurretEncoder(boolean reset) {
         if (reset) {
             turretMotor.setSelectedSensorPosition(STARTING_TURRET_ANGLE);
+            state.turretPosition = STARTING_TURRET_ANGLE;
+            turretAngleHistory.clear();
         }
     }
 
@@ -498,7 +644,7 @@ public class ShooterSubsystem extends SubsystemBase implements Loggable {
 
     @Log(name = "Temperatures", columnIndex = 2, rowIndex = 2)
     public String getTemperature() {
-        return flywheelMotor1.getTemperature() + " " + flywheelMotor2.getTemperature();
+        return state.flywheel1Temperature + " " + state.flywheel2Temperature;
     }
 
 }
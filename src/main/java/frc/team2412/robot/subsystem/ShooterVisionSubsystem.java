@@ -4,9 +4,14 @@ import static frc.team2412.robot.subsystem.ShooterVisionSubsystem.ShooterVisionC
 
 import static frc.team2412.robot.Hardware.*;
 
+import edu.wpi.first.networktables.EntryListenerFlags;
+import edu.wpi.first.networktables.EntryNotification;
 import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableEntry;
 import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.team2412.robot.util.SpscRingBuffer;
 import io.github.oblarg.oblog.Loggable;
 import io.github.oblarg.oblog.annotations.Config;
 import io.github.oblarg.oblog.annotations.Log;
@@ -22,19 +27,156 @@ public class ShooterVisionSubsystem extends SubsystemBase implements Loggable {
         public static final double LIMELIGHT_ANGLE_OFFSET = Math.toDegrees(Math.atan2(HEIGHT_TO_RIM, 360 - HUB_RADIUS)); // 10.95
 
         public static final int COMP_PIPELINE_NUM = 5;
+
+        // Latencies are in milliseconds
+        // Limelight docs say to add at least 11ms of image capture latency to tl
+        public static final double LIMELIGHT_CAPTURE_LATENCY = 11;
+
+        // If true, frames are pushed by NetworkTables listeners as they arrive instead of polled in periodic().
+        // Aiming still only sees a new frame once per loop, the listener only makes its timestamp more accurate.
+        public static final boolean USE_FRAME_LISTENERS = false;
+        public static final int FRAME_QUEUE_CAPACITY = 16;
         // -0.766666 limelight crosshair offset (3/19 update)
     }
 
+    /**
+     * An immutable snapshot of the limelight's values, taken once per loop so every consumer sees the
+     * same frame.
+     */
+    public static class VisionSnapshot {
+        public final boolean hasTarget;
+        // Angles are in degrees
+        public final double yaw;
+        public final double pitch;
+        public final double adjustedPitch;
+        // Inches
+        public final double distance;
+        // Total latency from image capture to the values being read, in milliseconds
+        public final double latency;
+        // Estimated FPGA time the image was captured, in seconds
+        public final double timestamp;
+        // NetworkTables time tl was last written, which identifies the frame. The timestamp can't, since it's
+        // estimated again each time the values are read.
+        public final long frameId;
+
+        public VisionSnapshot(boolean hasTarget, double yaw, double pitch, double latency, double readTime,
+                long frameId) {
+            this.hasTarget = hasTarget;
+            this.yaw = yaw;
+            this.pitch = pitch;
+            this.adjustedPitch = pitch + LIMELIGHT_ANGLE_OFFSET;
+            this.distance = HEIGHT_TO_RIM / Math.tan(Math.toRadians(adjustedPitch)) + HUB_RADIUS;
+            this.latency = latency;
+            this.timestamp = readTime - latency / 1000;
+            this.frameId = frameId;
+        }
+    }
+
     public NetworkTable limelight;
 
+    private final NetworkTableEntry targetEntry;
+    private final NetworkTableEntry yawEntry;
+    private final NetworkTableEntry pitchEntry;
+    private final NetworkTableEntry latencyEntry;
+    private final NetworkTableEntry ledModeEntry;
+    private final NetworkTableEntry pipelineEntry;
+
+    private final boolean useFrameListeners;
+    // Only used with frame listeners, written by the NetworkTables listener thread
+    private final SpscRingBuffer<VisionSnapshot> frameQueue;
+
+    // Only updated in periodic(), so it stays the same for the whole loop
+    private VisionSnapshot snapshot;
+
     public ShooterVisionSubsystem() {
+        this(USE_FRAME_LISTENERS);
+    }
+
+    /**
+     * Creates a new {@link ShooterVisionSubsystem}.
+     *
+     * @param useFrameListeners
+     *            If true, register NetworkTables listeners that push each limelight frame into a queue
+     *            as soon as it arrives, timestamped on arrival, instead of polling the entries. The queue
+     *            is only drained in {@link #periodic()}, so either way the snapshot, and the aiming that
+     *            uses it, is only updated once per loop. The listener doesn't make aiming react sooner.
+     *            It only makes the capture timestamp more accurate, because a frame is timestamped when
+     *            it arrives instead of up to a loop later.
+     */
+    public ShooterVisionSubsystem(boolean useFrameListeners) {
         limelight = NetworkTableInstance.getDefault().getTable(LIMELIGHT);
+        targetEntry = limelight.getEntry("tv");
+        yawEntry = limelight.getEntry("tx");
+        pitchEntry = limelight.getEntry("ty");
+        latencyEntry = limelight.getEntry("tl");
+        ledModeEntry = limelight.getEntry("ledMode");
+        pipelineEntry = limelight.getEntry("pipeline");
+        this.useFrameListeners = useFrameListeners;
+        updateSnapshot();
+        if (useFrameListeners) {
+            frameQueue = new SpscRingBuffer<>(FRAME_QUEUE_CAPACITY);
+            // The limelight writes tl every frame, so its update marks the end of a frame. tv/tx/ty are only
+            // sent when they change, so they are read from their entries.
+            latencyEntry.addListener(this::onFrame, EntryListenerFlags.kNew | EntryListenerFlags.kUpdate);
+        } else {
+            frameQueue = null;
+        }
         setCompPipeline();
     }
 
+    @Override
+    public void periodic() {
+        if (useFrameListeners) {
+            VisionSnapshot frame = frameQueue.pollLatest();
+            if (frame != null) {
+                snapshot = frame;
+            }
+        } else {
+            updateSnapshot();
+        }
+    }
+
+    private void updateSnapshot() {
+        snapshot = readSnapshot(latencyEntry.getDouble(0), latencyEntry.getLastChange());
+    }
+
+    private VisionSnapshot readSnapshot(double pipelineLatency, long frameId) {
+        return new VisionSnapshot(targetEntry.getDouble(0) == 1, yawEntry.getDouble(0), pitchEntry.getDouble(0),
+                pipelineLatency + LIMELIGHT_CAPTURE_LATENCY, Timer.getFPGATimestamp(), frameId);
+    }
+
+    // Runs on the NetworkTables listener thread
+    private void onFrame(EntryNotification notification) {
+        if (!notification.value.isDouble()) {
+            System.out.println("Ignoring limelight frame with non-number tl: " + notification.value.getValue());
+            return;
+        }
+        frameQueue.offer(readSnapshot(notification.value.getDouble(), notification.value.getTime()));
+    }
+
+    /**
+     * Returns whether frames are pushed by NetworkTables listeners instead of polled. Either way, the
+     * snapshot is only updated once per loop.
+     *
+     * @return True if frames are pushed by listeners.
+     */
+    public boolean usesFrameListeners() {
+        return useFrameListeners;
+    }
+
+    /**
+     * Returns the limelight values from the start of this loop. When using frame listeners, that's the
+     * newest frame received before the start of the loop.
+     *
+     * @return The latest {@link VisionSnapshot}.
+     */
+    public VisionSnapshot getSnapshot() {
+        return snapshot;
+    }
+
     @Log
     public boolean hasTarget() {
-        return limelight.getEntry("tv").getDouble(0) == 1;
+        return snapshot.hasTarget;
     }
 
     /**
@@ -46,7 +188,7 @@ public class ShooterVisionSubsystem extends SubsystemBase implements Loggable {
      */
     @Log(name = "Yaw")
     public double getYaw() {
-        return limelight.getEntry("tx").getDouble(0);
+        return snapshot.yaw;
     }
 
     /**
@@ -58,8 +200,7 @@ public class ShooterVisionSubsystem extends SubsystemBase implements Loggable {
      */
     @Log(name = "Distance")
     public double getDistance() {
-        double distanceToHubRim = HEIGHT_TO_RIM / Math.tan(Math.toRadians(getAdjustedPitch()));
-        return distanceToHubRim + HUB_RADIUS;
+        return snapshot.distance;
     }
 
     /**
@@ -69,7 +210,7 @@ public class ShooterVisionSubsystem extends SubsystemBase implements Loggable {
      */
     @Log(name = "Pitch from horizontal")
     public double getAdjustedPitch() {
-        return getPitch() + LIMELIGHT_ANGLE_OFFSET;
+        return snapshot.adjustedPitch;
     }
 
     /**
@@ -79,15 +220,15 @@ public class ShooterVisionSubsystem extends SubsystemBase implements Loggable {
      */
     @Log(name = "Raw limelight pitch")
     public double getPitch() {
-        return limelight.getEntry("ty").getDouble(0);
+        return snapshot.pitch;
     }
 
     public void setLedOn() {
-        limelight.getEntry("ledMode").setValue("1");
+        ledModeEntry.setValue("1");
     }
 
     public void setLedOff() {
-        limelight.getEntry("ledMode").setValue("0");
+        ledModeEntry.setValue("0");
     }
 
     public void setCompPipeline() {
@@ -96,12 +237,12 @@ public class ShooterVisionSubsystem extends SubsystemBase implements Loggable {
 
     @Config(name = "set Pipeline", defaultValueNumeric = COMP_PIPELINE_NUM)
     public void setPipeline(int pipelineNum) {
-        limelight.getEntry("pipeline").setNumber(pipelineNum);
+        pipelineEntry.setNumber(pipelineNum);
     }
 
     @Log(name = "current pipeline")
     public int getPipeline() {
-        return limelight.getEntry("pipeline").getNumber(0).intValue();
+        return pipelineEntry.getNumber(0).intValue();
     }
 
 }
@@ -7,6 +7,10 @@ import org.frcteam2910.common.math.Vector2;
 import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.filter.LinearFilter;
 import frc.team2412.robot.Robot;
+import frc.team2412.robot.subsystem.ShooterSubsystem.ShooterConstants;
+import frc.team2412.robot.subsystem.ShooterVisionSubsystem.VisionSnapshot;
+import frc.team2412.robot.util.MovingShotSolver;
+import frc.team2412.robot.util.ShotGrid;
 
 import io.github.oblarg.oblog.Loggable;
 import io.github.oblarg.oblog.annotations.Config;
@@ -35,8 +39,23 @@ public class TargetLocalizer implements Loggable {
         public static final Vector2 ROBOT_CENTRIC_TURRET_CENTER = new Vector2(3.93, -4);
 
         public static final double LATERAL_MAX = 80;
+
+        // Off until it has been checked against the raw tx path on the robot
+        public static final boolean LATENCY_COMPENSATION_DEFAULT = false;
+
+        // Off until the time of flight table is measured
+        public static final boolean MOVING_SHOT_SOLVER_DEFAULT = false;
+
+        // Off until it's tried on the robot. Above 90 in/s within about 115 in of the hub, the solver's virtual
+        // target can flip behind the shooter, and the grid interpolates across the flip.
+        public static final boolean SHOT_GRID_DEFAULT = false;
     }
 
+    // ROBOT_CENTRIC_TURRET_CENTER is clockwise positive like the turret, this is counterclockwise positive
+    // like the odometry
+    private static final Vector2 TURRET_CENTER = new Vector2(ROBOT_CENTRIC_TURRET_CENTER.x,
+            -ROBOT_CENTRIC_TURRET_CENTER.y);
+
     @Log.Exclude
     @Config.Exclude
     private final DrivebaseSubsystem drivebaseSubsystem;
@@ -53,11 +72,18 @@ public class TargetLocalizer implements Loggable {
     private final LinearFilter yawPass;
     private final Rotation2 gyroAdjustmentAngle;
     private final RigidTransform2 startingPose;
+    // Null if the time of flight table couldn't be loaded
+    private final MovingShotSolver movingShotSolver;
+    // Null if the shot grid couldn't be loaded
+    private final ShotGrid shotGrid;
 
     private double turretLateralFF = TURRET_LATERAL_FF;
     private double turretDepthFF = TURRET_DEPTH_FF;
     private double turretAngularFF = TURRET_ANGULAR_FF;
     private double turretDepthLateralFactor = TURRET_LATERAL_FACTOR;
+    private boolean latencyCompensation = LATENCY_COMPENSATION_DEFAULT;
+    private boolean movingShot = MOVING_SHOT_SOLVER_DEFAULT;
+    private boolean useShotGrid = SHOT_GRID_DEFAULT;
 
     /**
      * Creates a new {@link TargetLocalizer}.
@@ -82,16 +108,158 @@ public class TargetLocalizer implements Loggable {
         this.startingPose = new RigidTransform2(new Vector2(5 * 12, 5 * 12), Rotation2.ZERO);
         this.gyroAdjustmentAngle = startingPose.rotation
                 .rotateBy(drivebaseSubsystem.getGyroscopeUnadjustedAngle().inverse());
+        this.movingShotSolver = shooterSubsystem != null && ShooterConstants.TIME_OF_FLIGHT_TABLE != null
+                ? new MovingShotSolver(shooterSubsystem::getDataTable, ShooterConstants.TIME_OF_FLIGHT_TABLE)
+                : null;
+        this.shotGrid = ShooterConstants.SHOT_GRID;
+    }
+
+    /**
+     * Returns this loop's vision frame. The vision subsystem only updates it once per loop, so every
+     * call in a loop sees the same frame.
+     *
+     * @return The vision frame.
+     */
+    public VisionSnapshot getVisionFrame() {
+        return shooterVisionSubsystem.getSnapshot();
+    }
+
+    /**
+     * Returns whether vision measurements are being latency compensated.
+     *
+     * @return True if the hub position seen in each frame is projected to the robot's current pose.
+     */
+    public boolean isLatencyCompensated() {
+        return latencyCompensation && drivebaseSubsystem != null;
+    }
+
+    /**
+     * Returns the turret angle when a vision frame was captured.
+     *
+     * @param timestamp
+     *            The FPGA time the frame was captured, in seconds.
+     * @return The turret angle in degrees (0 is intake side, positive is clockwise).
+     */
+    private double getTurretAngleAtTime(double timestamp) {
+        return shooterSubsystem.getTurretAngleAtTime(timestamp);
+    }
+
+    /**
+     * Returns the turret angle that {@link #getVisionYaw()} is measured from. With latency compensation,
+     * that's the current turret angle; without it, it's the turret angle when the frame was captured.
+     *
+     * @return The turret angle in degrees (0 is intake side, positive is clockwise).
+     */
+    public double getVisionYawReferenceTurretAngle() {
+        return isLatencyCompensated() ? shooterSubsystem.getTurretAngle()
+                : getTurretAngleAtTime(getVisionFrame().timestamp);
+    }
+
+    /**
+     * Returns where the limelight is on the robot.
+     *
+     * @param turretAngle
+     *            The turret angle in degrees (0 is intake side, positive is clockwise).
+     * @return The limelight position in inches, in the robot frame (counterclockwise positive like the
+     *         odometry).
+     */
+    private static Vector2 getRobotLimelightPosition(double turretAngle) {
+        return TURRET_CENTER.add(Vector2.fromAngle(Rotation2.fromDegrees(-turretAngle))
+                .scale(LIMELIGHT_TO_TURRET_CENTER_DISTANCE));
+    }
+
+    /**
+     * Returns where the hub seen in a vision frame is in the odometry frame.
+     *
+     * Uses the robot pose and turret angle from when the frame was captured, and the limelight's position
+     * on the turret at that angle.
+     *
+     * @param frame
+     *            The vision frame, which should have a target.
+     * @return The hub position in inches, in the odometry frame.
+     */
+    public Vector2 getOdometryHubTranslation(VisionSnapshot frame) {
+        RigidTransform2 capturePose = drivebaseSubsystem.getPoseAtTime(frame.timestamp);
+        double captureTurretAngle = getTurretAngleAtTime(frame.timestamp);
+        // Turret and vision angles are clockwise positive, the odometry is counterclockwise positive
+        Rotation2 captureHubAngle = Rotation2.fromDegrees(-(captureTurretAngle + frame.yaw));
+        Vector2 captureHub = getRobotLimelightPosition(captureTurretAngle).add(Vector2.fromAngle(captureHubAngle)
+                .scale(frame.distance + shooterSubsystem.getDistanceBias()));
+        return capturePose.translation.add(captureHub.rotateBy(capturePose.rotation));
+    }
+
+    /**
+     * Returns where the hub seen in a vision frame is relative to the robot now.
+     *
+     * Puts the hub in the odometry frame using the pose from when the frame was captured, then brings it
+     * back into the robot's current pose.
+     *
+     * @param frame
+     *            The vision frame, which should have a target.
+     * @return The hub position in inches, in the robot frame (x towards the intake side of the turret's
+     *         zero, counterclockwise positive like the odometry).
+     */
+    private Vector2 getCompensatedHubTranslation(VisionSnapshot frame) {
+        RigidTransform2 currentPose = drivebaseSubsystem.getPose();
+        return getOdometryHubTranslation(frame).subtract(currentPose.translation)
+                .rotateBy(currentPose.rotation.inverse());
+    }
+
+    /**
+     * Returns the unfiltered yaw from the turret to the hub, compensated for latency if enabled.
+     *
+     * @return The yaw in degrees (0 is straight ahead, positive is clockwise).
+     */
+    private double getRawVisionYaw() {
+        VisionSnapshot frame = getVisionFrame();
+        if (!isLatencyCompensated() || !frame.hasTarget) {
+            return frame.yaw;
+        }
+        // From the turret center, which the limelight is in line with
+        Vector2 turretToHub = getCompensatedHubTranslation(frame).subtract(TURRET_CENTER);
+        double hubAngle = -turretToHub.getAngle().toDegrees();
+        return MathUtil.inputModulus(hubAngle - shooterSubsystem.getTurretAngle(), -180, 180);
+    }
+
+    /**
+     * Returns the unfiltered distance from the limelight to the hub (including the distance bias),
+     * compensated for latency if enabled.
+     *
+     * @return The distance in inches.
+     */
+    private double getRawDistance() {
+        VisionSnapshot frame = getVisionFrame();
+        if (!isLatencyCompensated() || !frame.hasTarget) {
+            return frame.distance + shooterSubsystem.getDistanceBias();
+        }
+        return getCompensatedHubTranslation(frame)
+                .subtract(getRobotLimelightPosition(shooterSubsystem.getTurretAngle())).length;
     }
 
     public double getDistance() {
         return hasTarget()
-                ? distanceFilter.calculate(shooterVisionSubsystem.getDistance() + shooterSubsystem.getDistanceBias())
+                ? distanceFilter.calculate(getRawDistance())
                 : VISION_DEFAULT_DISTANCE;
     }
 
     public double getAdjustedDistance() {
-        return getDistance() + distanceAdjustment();
+        return getAdjustedDistance(getDistance());
+    }
+
+    /**
+     * Returns the distance with {@link #distanceAdjustment(double)} added, without reading the filtered
+     * distance again.
+     *
+     * @param distance
+     *            The distance to the hub in inches, from {@link #getDistance()}.
+     * @return The adjusted distance in inches.
+     */
+    public double getAdjustedDistance(double distance) {
+        return distance + distanceAdjustment(distance);
+    }
+
+    public double distanceAdjustment() {
+        return distanceAdjustment(getDistance());
     }
 
     /**
@@ -99,24 +267,26 @@ public class TargetLocalizer implements Loggable {
      * are moving away
      * from target
      *
+     * @param distance
+     *            The distance to the hub in inches, from {@link #getDistance()}.
      * @return adjustment
      */
-    public double distanceAdjustment() {
+    public double distanceAdjustment(double distance) {
         if (getDepthVelocity() < 0.1) {
             return 0;
         }
         return (getDepthVelocity() * Math.sqrt(
-                getDistance() * getDistance()
+                distance * distance
                         + ((getLateralVelocity() * getLateralVelocity()) * turretDepthLateralFactor))
                 * turretDepthFF);
     }
 
     public double getPitch() {
-        return shooterVisionSubsystem.getAdjustedPitch();
+        return getVisionFrame().adjustedPitch;
     }
 
     public boolean hasTarget() {
-        return shooterVisionSubsystem.hasTarget();
+        return getVisionFrame().hasTarget;
     }
 
     /**
@@ -126,7 +296,7 @@ public class TargetLocalizer implements Loggable {
      *         are degrees).
      */
     public double getVisionYaw() {
-        return yawPass.calculate(shooterVisionSubsystem.getYaw());
+        return yawPass.calculate(getRawVisionYaw());
     }
 
     /**
@@ -189,6 +359,55 @@ public class TargetLocalizer implements Loggable {
         return (drivebaseSubsystem != null) ? drivebaseSubsystem.getAngularVelocity() : 0;
     }
 
+    /**
+     * Solves for the virtual target to shoot at while the robot is moving, using the robot's velocity
+     * and the ball's time of flight. Replaces {@link #getAdjustedDistance()} and the lateral part of
+     * {@link #yawAdjustment()}.
+     *
+     * Uses the precomputed {@link ShotGrid} when it's loaded and enabled, and the iterative
+     * {@link MovingShotSolver} otherwise.
+     *
+     * @param distance
+     *            The distance to the hub in inches, from the loop's one read of {@link #getDistance()}.
+     * @param hubTurretAngle
+     *            The turret angle that points at the hub in degrees (0 is intake side, positive is
+     *            clockwise).
+     * @param result
+     *            The {@link MovingShotSolver.Solution} to write into.
+     * @return True if {@code result} was written, false if the solver is disabled or unavailable.
+     */
+    public boolean solveMovingShot(double distance, double hubTurretAngle, MovingShotSolver.Solution result) {
+        if (!movingShot || movingShotSolver == null || drivebaseSubsystem == null) {
+            return false;
+        }
+        double hubAngle = Math.toRadians(-hubTurretAngle);
+        double hubX = Math.cos(hubAngle);
+        double hubY = Math.sin(hubAngle);
+        Vector2 velocity = drivebaseSubsystem.getVelocity();
+        // The grid is generated from the deployed CSV, so it's stale once the table is reloaded
+        if (useShotGrid && shotGrid != null && shooterSubsystem.getDataTableGeneration() == 0) {
+            // Toward the hub, and counterclockwise around it
+            double radialVelocity = velocity.x * hubX + velocity.y * hubY;
+            double tangentialVelocity = velocity.x * hubY - velocity.y * hubX;
+            shotGrid.lookup(distance, radialVelocity, tangentialVelocity, result);
+            return true;
+        }
+        return movingShotSolver.solve(hubX * distance, hubY * distance, velocity.x, velocity.y, result);
+    }
+
+    /**
+     * Turret feedforward to keep heading while the robot itself is turning.
+     *
+     * @return adjustment in degrees
+     */
+    public double angularAdjustment() {
+        return getAngularVelocity() * turretAngularFF;
+    }
+
+    public double yawAdjustment() {
+        return yawAdjustment(getDistance());
+    }
+
     /**
      * feedforward math for turret angle feedforward
      * multiply the lateral velocity by distance.
@@ -197,19 +416,20 @@ public class TargetLocalizer implements Loggable {
      * angular velocity is to help the turret keep heading when the robot itself is
      * turning
      *
+     * @param distance
+     *            The distance to the hub in inches, from {@link #getDistance()}.
      * @return adjustment
      */
-    public double yawAdjustment() {
+    public double yawAdjustment(double distance) {
         double lateralAdjustment = 0;
         double lateralVelocity = getLateralVelocity();
 
-        if (getDistance() != 0 && getDistance() > lateralVelocity) {
+        if (distance != 0 && distance > lateralVelocity) {
             double adjustedLateralVelocity = MathUtil.clamp(lateralVelocity, -LATERAL_MAX, LATERAL_MAX);
-            lateralAdjustment = Math.toDegrees(Math.asin(adjustedLateralVelocity / getDistance() * turretLateralFF));
+            lateralAdjustment = Math.toDegrees(Math.asin(adjustedLateralVelocity / distance * turretLateralFF));
         }
 
-        double angularAdjustment = getAngularVelocity() * turretAngularFF;
-        return lateralAdjustment + angularAdjustment;
+        return lateralAdjustment + angularAdjustment();
     }
 
     /**
@@ -322,6 +542,21 @@ public class TargetLocalizer implements Loggable {
         ignoreUpToSpeed = ignore;
     }
 
+    @Config.ToggleSwitch(name = "latency compensation", defaultValue = LATENCY_COMPENSATION_DEFAULT)
+    public void setLatencyCompensation(boolean compensate) {
+        latencyCompensation = compensate;
+    }
+
+    @Config.ToggleSwitch(name = "moving shot solver", defaultValue = MOVING_SHOT_SOLVER_DEFAULT)
+    public void setMovingShot(boolean solve) {
+        movingShot = solve;
+    }
+
+    @Config.ToggleSwitch(name = "shot grid", defaultValue = SHOT_GRID_DEFAULT)
+    public void setShotGrid(boolean useGrid) {
+        useShotGrid = useGrid;
+    }
+
     @Config(name = "Depth FF", defaultValueNumeric = TURRET_DEPTH_FF)
     public void setFDepth(double f) {
         turretDepthFF = f;
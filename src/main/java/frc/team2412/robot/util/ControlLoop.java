@@ -0,0 +1,164 @@
+package frc.team2412.robot.util;
+
+import static frc.team2412.robot.util.ControlLoop.ControlLoopConstants.*;
+
+import org.frcteam2910.common.robot.UpdateManager;
+
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Threads;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
+import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardLayout;
+import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
+
+/**
+ * Runs {@link UpdateManager.Updatable}s on a dedicated, elevated priority thread at a fixed period,
+ * replacing {@link UpdateManager}.
+ *
+ * Every iteration records how late it started (jitter) and how long the updates took (execution time).
+ * Once per {@link ControlLoopConstants#STATS_WINDOW} seconds the loop thread summarizes both into
+ * p50/p99/max, which are shown on the "Control Loop" Shuffleboard tab.
+ */
+public class ControlLoop {
+    public static class ControlLoopConstants {
+        // Real-time priority of the loop thread, from 1 to 99. The main robot thread isn't real-time.
+        public static final int THREAD_PRIORITY = 40;
+
+        // Seconds of timing to summarize at once
+        public static final double STATS_WINDOW = 1;
+
+        public static final double HISTOGRAM_BIN_WIDTH = 0.00005;
+        public static final double HISTOGRAM_RANGE = 0.02;
+    }
+
+    /**
+     * Loop timing summary, in milliseconds.
+     */
+    public static class Stats {
+        public static final Stats ZERO = new Stats(0, 0, 0, 0, 0, 0, 0);
+
+        public final double jitterP50, jitterP99, jitterMax;
+        public final double executionP50, executionP99, executionMax;
+        public final long overruns;
+
+        public Stats(double jitterP50, double jitterP99, double jitterMax, double executionP50,
+                double executionP99, double executionMax, long overruns) {
+            this.jitterP50 = jitterP50;
+            this.jitterP99 = jitterP99;
+            this.jitterMax = jitterMax;
+            this.executionP50 = executionP50;
+            this.executionP99 = executionP99;
+            this.executionMax = executionMax;
+            this.overruns = overruns;
+        }
+    }
+
+    private final UpdateManager.Updatable[] updatables;
+    private final Notifier notifier;
+
+    // Only touched by the loop thread
+    private final TimingHistogram jitter = new TimingHistogram(HISTOGRAM_BIN_WIDTH, HISTOGRAM_RANGE);
+    private final TimingHistogram execution = new TimingHistogram(HISTOGRAM_BIN_WIDTH, HISTOGRAM_RANGE);
+    private double period;
+    private double expectedStart = Double.NaN;
+    private double lastTime = Double.NaN;
+    private double windowStart;
+    private long overruns;
+    private boolean priorityRequested = false;
+
+    private volatile Stats stats = Stats.ZERO;
+    private volatile boolean realTime = false;
+
+    /**
+     * Creates a new {@link ControlLoop}. Call {@link #startLoop(double)} to start it.
+     *
+     * @param updatables
+     *            The updatables to run each iteration, in order.
+     */
+    public ControlLoop(UpdateManager.Updatable... updatables) {
+        this.updatables = updatables;
+        notifier = new Notifier(this::loop);
+        notifier.setName("ControlLoop");
+
+        ShuffleboardTab tab = Shuffleboard.getTab("Control Loop");
+        ShuffleboardLayout jitterLayout = tab.getLayout("Jitter (ms)");
+        jitterLayout.addNumber("p50", () -> stats.jitterP50);
+        jitterLayout.addNumber("p99", () -> stats.jitterP99);
+        jitterLayout.addNumber("max", () -> stats.jitterMax);
+        ShuffleboardLayout executionLayout = tab.getLayout("Execution (ms)");
+        executionLayout.addNumber("p50", () -> stats.executionP50);
+        executionLayout.addNumber("p99", () -> stats.executionP99);
+        executionLayout.addNumber("max", () -> stats.executionMax);
+        tab.addNumber("Overruns", () -> stats.overruns);
+        tab.addBoolean("Real-time", () -> realTime);
+    }
+
+    /**
+     * Starts running the updatables.
+     *
+     * @param period
+     *            The loop period in seconds.
+     */
+    public void startLoop(double period) {
+        this.period = period;
+        notifier.startPeriodic(period);
+    }
+
+    /**
+     * Stops running the updatables.
+     */
+    public void stopLoop() {
+        notifier.stop();
+        expectedStart = Double.NaN;
+        lastTime = Double.NaN;
+    }
+
+    /**
+     * Returns the timing summary of the last full window.
+     *
+     * @return The timing stats.
+     */
+    public Stats getStats() {
+        return stats;
+    }
+
+    private void loop() {
+        if (!priorityRequested) {
+            // The notifier thread is only known from inside the callback
+            priorityRequested = true;
+            realTime = Threads.setCurrentThreadPriority(true, THREAD_PRIORITY);
+        }
+
+        double start = Timer.getFPGATimestamp();
+        if (Double.isNaN(expectedStart)) {
+            expectedStart = start;
+            windowStart = start;
+        }
+        jitter.record(start - expectedStart);
+
+        double dt = Double.isNaN(lastTime) ? period : start - lastTime;
+        lastTime = start;
+        for (UpdateManager.Updatable updatable : updatables) {
+            updatable.update(start, dt);
+        }
+
+        double end = Timer.getFPGATimestamp();
+        execution.record(end - start);
+        if (end - start > period) {
+            overruns++;
+        }
+
+        // The notifier schedules each iteration a period after the last scheduled time, not the last
+        // actual time
+        expectedStart += period;
+
+        if (end - windowStart >= STATS_WINDOW) {
+            stats = new Stats(jitter.getPercentile(50) * 1000, jitter.getPercentile(99) * 1000,
+                    jitter.getMax() * 1000, execution.getPercentile(50) * 1000,
+                    execution.getPercentile(99) * 1000, execution.getMax() * 1000, overruns);
+            jitter.reset();
+            execution.reset();
+            windowStart = end;
+        }
+    }
+}
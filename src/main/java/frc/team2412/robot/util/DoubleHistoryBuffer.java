@@ -0,0 +1,107 @@
+package frc.team2412.robot.util;
+
+/**
+ * A fixed-size history of timestamped values, stored in a primitive ring buffer, that can be looked
+ * up at any time by interpolating between the two nearest samples.
+ *
+ * Samples must be added in time order. Once the buffer is full, each new sample overwrites the
+ * oldest one.
+ */
+public class DoubleHistoryBuffer {
+    private final double[] times;
+    private final double[] values;
+    // Index the next sample is written to
+    private int next;
+    private int size;
+
+    /**
+     * Creates a new {@link DoubleHistoryBuffer}.
+     *
+     * @param capacity
+     *            The number of samples to keep.
+     */
+    public DoubleHistoryBuffer(int capacity) {
+        times = new double[Math.max(capacity, 1)];
+        values = new double[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Adds a sample, overwriting the oldest sample if the buffer is full.
+     *
+     * @param time
+     *            The time of the sample in seconds. Should not be earlier than the previous sample.
+     * @param value
+     *            The value of the sample.
+     */
+    public void add(double time, double value) {
+        times[next] = time;
+        values[next] = value;
+        next = (next + 1) % times.length;
+        if (size < times.length) {
+            size++;
+        }
+    }
+
+    /**
+     * Returns the value at a time, interpolating between the two nearest samples. Times before the
+     * oldest sample or after the newest sample return that sample's value.
+     *
+     * @param time
+     *            The time in seconds.
+     * @param defaultValue
+     *            The value to return if the buffer is empty.
+     * @return The interpolated value.
+     */
+    public double get(double time, double defaultValue) {
+        if (size == 0) {
+            return defaultValue;
+        }
+        if (time <= times[slot(0)]) {
+            return values[slot(0)];
+        }
+        if (time >= times[slot(size - 1)]) {
+            return values[slot(size - 1)];
+        }
+
+        // Find the last sample at or before the time; the one after it is after the time
+        int low = 0;
+        int high = size - 1;
+        while (high - low > 1) {
+            int mid = (low + high) >>> 1;
+            if (times[slot(mid)] <= time) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+
+        int lowSlot = slot(low);
+        int highSlot = slot(high);
+        double t = (time - times[lowSlot]) / (times[highSlot] - times[lowSlot]);
+        return values[lowSlot] + (values[highSlot] - values[lowSlot]) * t;
+    }
+
+    /**
+     * Returns whether the buffer has no samples.
+     *
+     * @return True if the buffer is empty.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all samples.
+     */
+    public void clear() {
+        next = 0;
+        size = 0;
+    }
+
+    /**
+     * Returns the slot of the sample at an index, where 0 is the oldest sample.
+     */
+    private int slot(int index) {
+        return (next - size + index + times.length) % times.length;
+    }
+}
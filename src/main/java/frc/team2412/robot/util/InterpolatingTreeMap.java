@@ -121,14 +121,22 @@ public class InterpolatingTreeMap extends TreeMap<Double, ShooterDataDistancePoi
     }
 
     /**
-     * Replaces all data in the {@link InterpolatingTreeMap} with data from a CSV file.
+     * Replaces all data in the {@link InterpolatingTreeMap} with data from a CSV file. Keeps the old
+     * data if the file couldn't be read.
+     *
+     * Not thread safe, readers can see a partly replaced map. Use {@link ShooterDataReloader} to reload
+     * data that's being read by the robot.
      *
      * @param fileName
      *            The path to the CSV file.
      */
     public void replaceFromCSV(String fileName) {
+        InterpolatingTreeMap map = fromCSV(fileName);
+        if (map == null) {
+            return;
+        }
         clear();
-        putAll(fromCSV(fileName));
+        putAll(map);
     }
 
     /**
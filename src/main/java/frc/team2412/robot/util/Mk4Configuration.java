@@ -52,4 +52,8 @@ public class Mk4Configuration {
     public double getOffset() {
         return offset;
     }
+
+    public String getCanBus() {
+        return canBus;
+    }
 }
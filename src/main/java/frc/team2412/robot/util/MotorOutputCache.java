@@ -0,0 +1,138 @@
+package frc.team2412.robot.util;
+
+/**
+ * Remembers the last command sent to a motor controller, so a subsystem can skip sending the same
+ * command again every loop.
+ *
+ * A command is sent when its mode changes, when its setpoint or feedforward moves by more than
+ * {@link #EPSILON}, or when {@link #KEEP_ALIVE_PERIOD} has passed since the last send, so a dropped
+ * frame or controller reset is recovered from.
+ *
+ * Counters of made and skipped calls are kept per cache and in total across every cache. They are
+ * only meant to be updated from the main robot thread.
+ *
+ * A skipped call is a skipped JNI call into the vendor library, not a skipped CAN frame. Phoenix 5
+ * sends a TalonFX's control frame periodically whether or not set() is called, so caching a TalonFX
+ * saves no bus traffic. A Spark MAX sends a frame on every setReference(), so there a skipped call is
+ * also a frame that wasn't sent.
+ */
+public class MotorOutputCache {
+    public static final double EPSILON = 1e-4;
+    // Seconds
+    public static final double KEEP_ALIVE_PERIOD = 0.5;
+
+    private static long totalMade = 0;
+    private static long totalSkipped = 0;
+
+    private final TimeSource timeSource;
+
+    private Object lastMode = null;
+    private double lastSetpoint = Double.NaN;
+    private double lastFeedforward = Double.NaN;
+    private double lastSendTime = Double.NEGATIVE_INFINITY;
+
+    private long made = 0;
+    private long skipped = 0;
+
+    /**
+     * Creates a new {@link MotorOutputCache} using FPGA time.
+     */
+    public MotorOutputCache() {
+        this(TimeSource.FPGA);
+    }
+
+    /**
+     * Creates a new {@link MotorOutputCache}.
+     *
+     * @param timeSource
+     *            The time source for the keep-alive period.
+     */
+    public MotorOutputCache(TimeSource timeSource) {
+        this.timeSource = timeSource;
+    }
+
+    /**
+     * Returns whether a command should be sent, recording it as sent if so.
+     *
+     * @param mode
+     *            The control mode, compared with {@link Object#equals(Object)}.
+     * @param setpoint
+     *            The setpoint.
+     * @return True if the command needs to be sent to the motor controller.
+     */
+    public boolean shouldSend(Object mode, double setpoint) {
+        return shouldSend(mode, setpoint, 0);
+    }
+
+    /**
+     * Returns whether a command should be sent, recording it as sent if so.
+     *
+     * @param mode
+     *            The control mode, compared with {@link Object#equals(Object)}.
+     * @param setpoint
+     *            The setpoint.
+     * @param feedforward
+     *            The arbitrary feedforward.
+     * @return True if the command needs to be sent to the motor controller.
+     */
+    public boolean shouldSend(Object mode, double setpoint, double feedforward) {
+        double time = timeSource.getTime();
+        if (mode.equals(lastMode) && Math.abs(setpoint - lastSetpoint) <= EPSILON
+                && Math.abs(feedforward - lastFeedforward) <= EPSILON
+                && time - lastSendTime < KEEP_ALIVE_PERIOD) {
+            skipped++;
+            totalSkipped++;
+            return false;
+        }
+        lastMode = mode;
+        lastSetpoint = setpoint;
+        lastFeedforward = feedforward;
+        lastSendTime = time;
+        made++;
+        totalMade++;
+        return true;
+    }
+
+    /**
+     * Forgets the last command, so the next one is always sent. Should be called after commanding the
+     * motor controller without this cache.
+     */
+    public void invalidate() {
+        lastMode = null;
+    }
+
+    public long getCallsMade() {
+        return made;
+    }
+
+    public long getCallsSkipped() {
+        return skipped;
+    }
+
+    /**
+     * Returns the number of set() calls every cache let through since the last {@link #resetTotals()}.
+     *
+     * @return The number of calls made.
+     */
+    public static long getTotalCallsMade() {
+        return totalMade;
+    }
+
+    /**
+     * Returns the number of set() calls skipped by every cache since the last {@link #resetTotals()}.
+     * This isn't the number of CAN frames saved, see {@link MotorOutputCache}.
+     *
+     * @return The number of calls skipped.
+     */
+    public static long getTotalCallsSkipped() {
+        return totalSkipped;
+    }
+
+    /**
+     * Resets the total counters, for example at the start of a match.
+     */
+    public static void resetTotals() {
+        totalMade = 0;
+        totalSkipped = 0;
+    }
+}
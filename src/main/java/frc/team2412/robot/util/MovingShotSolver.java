@@ -0,0 +1,181 @@
+package frc.team2412.robot.util;
+
+import java.util.function.Supplier;
+
+/**
+ * Finds where to aim while the robot is moving.
+ *
+ * The ball keeps the robot's velocity after it leaves the shooter, so to score it has to be aimed at a
+ * virtual target, offset from the hub by the robot's velocity times the time of flight. The time of
+ * flight depends on the distance to the virtual target, so the solver iterates: look up the time of
+ * flight for the current virtual distance, move the virtual target, and repeat until the distance stops
+ * changing or the iteration budget runs out.
+ *
+ * All math is in the robot's frame, in inches and seconds. Nothing is allocated per solve.
+ */
+public class MovingShotSolver {
+    public static class MovingShotConstants {
+        // Each iteration is two table lookups, so this is well under a microsecond per loop
+        public static final int MAX_ITERATIONS = 8;
+        // Inches
+        public static final double DISTANCE_TOLERANCE = 0.25;
+    }
+
+    /**
+     * A mutable solution, meant to be allocated once and reused every loop.
+     */
+    public static class Solution {
+        private double distance, yawOffset, angle, RPM, timeOfFlight;
+        private int iterations;
+        private boolean converged;
+
+        /**
+         * @return Distance to the virtual target in inches.
+         */
+        public double getDistance() {
+            return distance;
+        }
+
+        /**
+         * @return Yaw from the hub to the virtual target in degrees, positive is clockwise.
+         */
+        public double getYawOffset() {
+            return yawOffset;
+        }
+
+        /**
+         * @return Hood angle for the virtual distance in degrees.
+         */
+        public double getAngle() {
+            return angle;
+        }
+
+        /**
+         * @return Flywheel RPM for the virtual distance.
+         */
+        public double getRPM() {
+            return RPM;
+        }
+
+        /**
+         * @return Time of flight to the virtual target in seconds.
+         */
+        public double getTimeOfFlight() {
+            return timeOfFlight;
+        }
+
+        public int getIterations() {
+            return iterations;
+        }
+
+        /**
+         * @return Whether the virtual distance settled within tolerance before the iteration budget ran
+         *         out. If not, the solution is from the last iteration.
+         */
+        public boolean isConverged() {
+            return converged;
+        }
+
+        void set(double distance, double yawOffset, double angle, double RPM, double timeOfFlight, int iterations,
+                boolean converged) {
+            this.distance = distance;
+            this.yawOffset = yawOffset;
+            this.angle = angle;
+            this.RPM = RPM;
+            this.timeOfFlight = timeOfFlight;
+            this.iterations = iterations;
+            this.converged = converged;
+        }
+
+        @Override
+        public String toString() {
+            return "{distance: " + distance + ", yawOffset: " + yawOffset + ", angle: " + angle + ", RPM: " + RPM
+                    + ", timeOfFlight: " + timeOfFlight + ", iterations: " + iterations + ", converged: "
+                    + converged + "}";
+        }
+    }
+
+    private final Supplier<ShooterDataTable> shooterData;
+    private final TimeOfFlightTable timeOfFlight;
+    private final ShooterDataTable.Sample sample = new ShooterDataTable.Sample();
+
+    /**
+     * Creates a new {@link MovingShotSolver}.
+     *
+     * @param shooterData
+     *            Hood angle and RPM against distance.
+     * @param timeOfFlight
+     *            Time of flight against distance.
+     */
+    public MovingShotSolver(ShooterDataTable shooterData, TimeOfFlightTable timeOfFlight) {
+        this(() -> shooterData, timeOfFlight);
+    }
+
+    /**
+     * Creates a new {@link MovingShotSolver} that reads the newest shooter data table on every solve,
+     * for tables that can be reloaded.
+     *
+     * @param shooterData
+     *            Supplies hood angle and RPM against distance, or null if there's no table.
+     * @param timeOfFlight
+     *            Time of flight against distance.
+     */
+    public MovingShotSolver(Supplier<ShooterDataTable> shooterData, TimeOfFlightTable timeOfFlight) {
+        this.shooterData = shooterData;
+        this.timeOfFlight = timeOfFlight;
+    }
+
+    /**
+     * Solves for the virtual target.
+     *
+     * @param hubX
+     *            X of the hub relative to the shooter, in the robot's frame.
+     * @param hubY
+     *            Y of the hub relative to the shooter, in the robot's frame.
+     * @param velocityX
+     *            X of the robot's velocity, in the robot's frame.
+     * @param velocityY
+     *            Y of the robot's velocity, in the robot's frame.
+     * @param result
+     *            The {@link Solution} to write into.
+     * @return True if {@code result} was written, false if there's no shooter data table or it couldn't
+     *         be interpolated.
+     */
+    public boolean solve(double hubX, double hubY, double velocityX, double velocityY, Solution result) {
+        // Read once, so every iteration uses the same table if it's reloaded mid-solve
+        ShooterDataTable table = shooterData.get();
+        if (table == null) {
+            return false;
+        }
+        double distance = Math.hypot(hubX, hubY);
+        double virtualX = hubX;
+        double virtualY = hubY;
+        double time = 0;
+        boolean converged = false;
+        int iterations = 0;
+
+        while (iterations < MovingShotConstants.MAX_ITERATIONS) {
+            iterations++;
+            time = timeOfFlight.getTimeOfFlight(distance);
+            virtualX = hubX - velocityX * time;
+            virtualY = hubY - velocityY * time;
+            double virtualDistance = Math.hypot(virtualX, virtualY);
+            if (!table.getInterpolated(virtualDistance, sample)) {
+                return false;
+            }
+            boolean settled = Math.abs(virtualDistance - distance) <= MovingShotConstants.DISTANCE_TOLERANCE;
+            distance = virtualDistance;
+            if (settled) {
+                converged = true;
+                break;
+            }
+        }
+
+        // Angles are counterclockwise in the robot frame, the offset is clockwise like the turret
+        double yawOffset = -Math.toDegrees(Math.atan2(hubX * virtualY - hubY * virtualX,
+                hubX * virtualX + hubY * virtualY));
+
+        result.set(distance, yawOffset, sample.getAngle(), sample.getRPM(), time, iterations, converged);
+        return true;
+    }
+}
@@ -0,0 +1,166 @@
+package frc.team2412.robot.util;
+
+import org.frcteam2910.common.math.RigidTransform2;
+import org.frcteam2910.common.math.Rotation2;
+import org.frcteam2910.common.math.Vector2;
+
+/**
+ * A fixed-size history of timestamped poses, stored in a primitive ring buffer, that can be looked up
+ * at any time by interpolating between the two nearest samples.
+ *
+ * Adding a pose doesn't allocate, so it can be called from the odometry loop without creating garbage.
+ * Samples must be added in time order. Once the buffer is full, each new sample overwrites the oldest
+ * one.
+ */
+public class PoseHistoryBuffer {
+    private final double[] times;
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] coses;
+    private final double[] sines;
+    // Index the next sample is written to
+    private int next;
+    private int size;
+
+    /**
+     * Creates a new {@link PoseHistoryBuffer}.
+     *
+     * @param capacity
+     *            The number of samples to keep.
+     */
+    public PoseHistoryBuffer(int capacity) {
+        int length = Math.max(capacity, 1);
+        times = new double[length];
+        xs = new double[length];
+        ys = new double[length];
+        coses = new double[length];
+        sines = new double[length];
+    }
+
+    /**
+     * Adds a sample, overwriting the oldest sample if the buffer is full.
+     *
+     * @param time
+     *            The time of the sample in seconds. Should not be earlier than the previous sample.
+     * @param pose
+     *            The pose at that time.
+     */
+    public void add(double time, RigidTransform2 pose) {
+        add(time, pose.translation.x, pose.translation.y, pose.rotation.cos, pose.rotation.sin);
+    }
+
+    /**
+     * Adds a sample, overwriting the oldest sample if the buffer is full.
+     *
+     * @param time
+     *            The time of the sample in seconds. Should not be earlier than the previous sample.
+     * @param x
+     *            The x coordinate of the pose.
+     * @param y
+     *            The y coordinate of the pose.
+     * @param cos
+     *            The cosine of the pose's heading.
+     * @param sin
+     *            The sine of the pose's heading.
+     */
+    public void add(double time, double x, double y, double cos, double sin) {
+        times[next] = time;
+        xs[next] = x;
+        ys[next] = y;
+        coses[next] = cos;
+        sines[next] = sin;
+        next = (next + 1) % times.length;
+        if (size < times.length) {
+            size++;
+        }
+    }
+
+    /**
+     * Returns the pose at a time, interpolating between the two nearest samples. Times before the
+     * oldest sample or after the newest sample return that sample's pose.
+     *
+     * @param time
+     *            The time in seconds.
+     * @param defaultPose
+     *            The pose to return if the buffer is empty.
+     * @return The interpolated pose.
+     */
+    public RigidTransform2 get(double time, RigidTransform2 defaultPose) {
+        if (size == 0) {
+            return defaultPose;
+        }
+        if (time <= times[slot(0)]) {
+            return poseAt(slot(0));
+        }
+        if (time >= times[slot(size - 1)]) {
+            return poseAt(slot(size - 1));
+        }
+
+        // Find the last sample at or before the time; the one after it is after the time
+        int low = 0;
+        int high = size - 1;
+        while (high - low > 1) {
+            int mid = (low + high) >>> 1;
+            if (times[slot(mid)] <= time) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+
+        int lowSlot = slot(low);
+        int highSlot = slot(high);
+        double t = (time - times[lowSlot]) / (times[highSlot] - times[lowSlot]);
+
+        double x = xs[lowSlot] + (xs[highSlot] - xs[lowSlot]) * t;
+        double y = ys[lowSlot] + (ys[highSlot] - ys[lowSlot]) * t;
+
+        // Rotate the lower heading by a fraction of the angle between the two headings
+        double cos = coses[lowSlot];
+        double sin = sines[lowSlot];
+        double delta = Math.atan2(cos * sines[highSlot] - sin * coses[highSlot],
+                cos * coses[highSlot] + sin * sines[highSlot]) * t;
+        double deltaCos = Math.cos(delta);
+        double deltaSin = Math.sin(delta);
+
+        return new RigidTransform2(new Vector2(x, y),
+                new Rotation2(cos * deltaCos - sin * deltaSin, cos * deltaSin + sin * deltaCos, false));
+    }
+
+    /**
+     * Returns whether the buffer has no samples.
+     *
+     * @return True if the buffer is empty.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all samples.
+     */
+    public void clear() {
+        next = 0;
+        size = 0;
+    }
+
+    /**
+     * Returns the number of samples the buffer holds when full.
+     *
+     * @return The capacity.
+     */
+    public int capacity() {
+        return times.length;
+    }
+
+    private RigidTransform2 poseAt(int slot) {
+        return new RigidTransform2(new Vector2(xs[slot], ys[slot]), new Rotation2(coses[slot], sines[slot], false));
+    }
+
+    /**
+     * Returns the slot of the sample at an index, where 0 is the oldest sample.
+     */
+    private int slot(int index) {
+        return (next - size + index + times.length) % times.length;
+    }
+}
@@ -0,0 +1,165 @@
+package frc.team2412.robot.util;
+
+import org.frcteam2910.common.kinematics.ChassisVelocity;
+import org.frcteam2910.common.kinematics.SwerveKinematics;
+import org.frcteam2910.common.math.Vector2;
+
+/**
+ * Swerve kinematics on primitive arrays, computing the same results as a {@link SwerveKinematics}
+ * without allocating.
+ *
+ * The forward and inverse kinematics matrices are read out of the {@link SwerveKinematics} by feeding
+ * it unit vectors, so they match its pseudo-inverse exactly, and each matrix-vector product is summed in
+ * the same order as the matrix library does.
+ *
+ * Module velocities are passed as separate x and y arrays, indexed in the same order as the module
+ * offsets.
+ */
+public class PrimitiveSwerveKinematics {
+    // Shortest vector Rotation2 will normalize, shorter vectors are treated as angle 0
+    private static final double ANGLE_EPSILON = 1e-9;
+
+    private final int moduleCount;
+    // 3 x 2n, maps module velocities (x0, y0, x1, y1, ...) to (vx, vy, omega)
+    private final double[][] forward;
+    // 2n x 3, maps (vx, vy, omega) to module velocities
+    private final double[][] inverse;
+
+    /**
+     * Creates a new {@link PrimitiveSwerveKinematics}.
+     *
+     * @param kinematics
+     *            The kinematics to match.
+     * @param moduleCount
+     *            The number of modules the kinematics was created with.
+     */
+    public PrimitiveSwerveKinematics(SwerveKinematics kinematics, int moduleCount) {
+        this.moduleCount = moduleCount;
+        forward = new double[3][moduleCount * 2];
+        inverse = new double[moduleCount * 2][3];
+
+        Vector2[] moduleVelocities = new Vector2[moduleCount];
+        for (int column = 0; column < moduleCount * 2; column++) {
+            for (int i = 0; i < moduleCount; i++) {
+                moduleVelocities[i] = Vector2.ZERO;
+            }
+            moduleVelocities[column / 2] = column % 2 == 0 ? new Vector2(1, 0) : new Vector2(0, 1);
+            ChassisVelocity chassisVelocity = kinematics.toChassisVelocity(moduleVelocities);
+            forward[0][column] = chassisVelocity.getTranslationalVelocity().x;
+            forward[1][column] = chassisVelocity.getTranslationalVelocity().y;
+            forward[2][column] = chassisVelocity.getAngularVelocity();
+        }
+
+        for (int column = 0; column < 3; column++) {
+            ChassisVelocity chassisVelocity = new ChassisVelocity(
+                    new Vector2(column == 0 ? 1 : 0, column == 1 ? 1 : 0), column == 2 ? 1 : 0);
+            Vector2[] outputs = kinematics.toModuleVelocities(chassisVelocity);
+            for (int i = 0; i < moduleCount; i++) {
+                inverse[i * 2][column] = outputs[i].x;
+                inverse[i * 2 + 1][column] = outputs[i].y;
+            }
+        }
+    }
+
+    /**
+     * Converts module velocities to a chassis velocity.
+     *
+     * @param moduleX
+     *            The x component of each module's velocity.
+     * @param moduleY
+     *            The y component of each module's velocity.
+     * @param result
+     *            Array of at least 3 to write the chassis velocity into, as (vx, vy, omega).
+     */
+    public void toChassisVelocity(double[] moduleX, double[] moduleY, double[] result) {
+        for (int row = 0; row < 3; row++) {
+            double[] coefficients = forward[row];
+            double total = coefficients[0] * moduleX[0];
+            total += coefficients[1] * moduleY[0];
+            for (int i = 1; i < moduleCount; i++) {
+                total += coefficients[i * 2] * moduleX[i];
+                total += coefficients[i * 2 + 1] * moduleY[i];
+            }
+            result[row] = total;
+        }
+    }
+
+    /**
+     * Converts a chassis velocity to module velocities.
+     *
+     * @param vx
+     *            The x component of the chassis velocity.
+     * @param vy
+     *            The y component of the chassis velocity.
+     * @param omega
+     *            The angular velocity of the chassis.
+     * @param moduleX
+     *            Array to write the x component of each module's velocity into.
+     * @param moduleY
+     *            Array to write the y component of each module's velocity into.
+     */
+    public void toModuleVelocities(double vx, double vy, double omega, double[] moduleX, double[] moduleY) {
+        for (int i = 0; i < moduleCount; i++) {
+            double[] xCoefficients = inverse[i * 2];
+            double[] yCoefficients = inverse[i * 2 + 1];
+            moduleX[i] = xCoefficients[0] * vx + xCoefficients[1] * vy + xCoefficients[2] * omega;
+            moduleY[i] = yCoefficients[0] * vx + yCoefficients[1] * vy + yCoefficients[2] * omega;
+        }
+    }
+
+    /**
+     * Scales module velocities down so none is faster than a maximum, keeping their ratios. Matches
+     * {@link SwerveKinematics#normalizeModuleVelocities(Vector2[], double)}.
+     *
+     * @param moduleX
+     *            The x component of each module's velocity.
+     * @param moduleY
+     *            The y component of each module's velocity.
+     * @param maximumVelocity
+     *            The maximum module speed.
+     */
+    public void normalizeModuleVelocities(double[] moduleX, double[] moduleY, double maximumVelocity) {
+        double realMaxVelocity = 0;
+        for (int i = 0; i < moduleCount; i++) {
+            realMaxVelocity = Math.max(realMaxVelocity, Math.hypot(moduleX[i], moduleY[i]));
+        }
+
+        if (realMaxVelocity > maximumVelocity) {
+            double scale = maximumVelocity / realMaxVelocity;
+            for (int i = 0; i < moduleCount; i++) {
+                moduleX[i] *= scale;
+                moduleY[i] *= scale;
+            }
+        }
+    }
+
+    /**
+     * Returns the angle of a module velocity, taking the same steps as {@code Vector2.getAngle().toRadians()}.
+     *
+     * @param x
+     *            The x component of the module's velocity.
+     * @param y
+     *            The y component of the module's velocity.
+     * @return The angle in radians, from 0 to 2 pi like {@code Rotation2.toRadians()}.
+     */
+    public static double getModuleAngle(double x, double y) {
+        double length = Math.hypot(x, y);
+        if (length > ANGLE_EPSILON) {
+            double angle = Math.atan2(y / length, x / length);
+            if (angle < 0.0) {
+                angle += 2.0 * Math.PI;
+            }
+            return angle;
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the number of modules.
+     *
+     * @return The module count.
+     */
+    public int getModuleCount() {
+        return moduleCount;
+    }
+}
@@ -0,0 +1,111 @@
+package frc.team2412.robot.util;
+
+import org.frcteam2910.common.kinematics.SwerveOdometry;
+import org.frcteam2910.common.math.RigidTransform2;
+
+/**
+ * Swerve odometry on primitives, computing the same pose as a {@link SwerveOdometry} without
+ * allocating. The chassis velocity from the latest update is kept so it doesn't need to be computed
+ * twice.
+ */
+public class PrimitiveSwerveOdometry {
+    private final PrimitiveSwerveKinematics kinematics;
+    private final double[] chassisVelocity = new double[3];
+
+    private double x, y, cos = 1, sin = 0;
+
+    /**
+     * Creates a new {@link PrimitiveSwerveOdometry}.
+     *
+     * @param kinematics
+     *            The kinematics of the drivebase.
+     * @param initialPose
+     *            The starting pose.
+     */
+    public PrimitiveSwerveOdometry(PrimitiveSwerveKinematics kinematics, RigidTransform2 initialPose) {
+        this.kinematics = kinematics;
+        resetPose(initialPose);
+    }
+
+    /**
+     * Integrates the module velocities over one update.
+     *
+     * @param gyroCos
+     *            The cosine of the robot's heading.
+     * @param gyroSin
+     *            The sine of the robot's heading.
+     * @param dt
+     *            The time since the last update in seconds.
+     * @param moduleX
+     *            The x component of each module's velocity.
+     * @param moduleY
+     *            The y component of each module's velocity.
+     */
+    public void update(double gyroCos, double gyroSin, double dt, double[] moduleX, double[] moduleY) {
+        kinematics.toChassisVelocity(moduleX, moduleY, chassisVelocity);
+        double vx = chassisVelocity[0];
+        double vy = chassisVelocity[1];
+
+        // Same operation order as translation.add(velocity.rotateBy(angle).scale(dt))
+        x = x + (vx * gyroCos - vy * gyroSin) * dt;
+        y = y + (vx * gyroSin + vy * gyroCos) * dt;
+        cos = gyroCos;
+        sin = gyroSin;
+    }
+
+    /**
+     * Sets the pose.
+     *
+     * @param pose
+     *            The new pose.
+     */
+    public void resetPose(RigidTransform2 pose) {
+        x = pose.translation.x;
+        y = pose.translation.y;
+        cos = pose.rotation.cos;
+        sin = pose.rotation.sin;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getCos() {
+        return cos;
+    }
+
+    public double getSin() {
+        return sin;
+    }
+
+    /**
+     * Returns the robot-relative chassis velocity from the latest update.
+     *
+     * @return The x component of the velocity.
+     */
+    public double getVelocityX() {
+        return chassisVelocity[0];
+    }
+
+    /**
+     * Returns the robot-relative chassis velocity from the latest update.
+     *
+     * @return The y component of the velocity.
+     */
+    public double getVelocityY() {
+        return chassisVelocity[1];
+    }
+
+    /**
+     * Returns the angular velocity from the latest update.
+     *
+     * @return The angular velocity in radians per second.
+     */
+    public double getAngularVelocity() {
+        return chassisVelocity[2];
+    }
+}
@@ -0,0 +1,158 @@
+package frc.team2412.robot.util;
+
+import org.frcteam2910.common.control.MaxAccelerationConstraint;
+import org.frcteam2910.common.control.MaxVelocityConstraint;
+import org.frcteam2910.common.control.Path;
+import org.frcteam2910.common.control.SimplePathBuilder;
+import org.frcteam2910.common.control.Trajectory;
+import org.frcteam2910.common.control.TrajectoryConstraint;
+import org.frcteam2910.common.math.Rotation2;
+import org.frcteam2910.common.math.Vector2;
+
+/**
+ * A 2910 {@link Trajectory} stored as states sampled at a fixed period, so it can be followed by the
+ * 2910 trajectory followers without profiling its path.
+ *
+ * States between samples are linearly interpolated. Headings and rotations are stored unwrapped, so
+ * interpolating across 180 degrees turns the short way.
+ *
+ * {@link #getPath()} returns a placeholder, since only the samples are kept.
+ */
+public class SampledTrajectory extends Trajectory {
+    // Trajectory's constructor profiles the path it's given, so give it something trivial
+    private static final Path PLACEHOLDER_PATH = new SimplePathBuilder(new Vector2(0, 0), Rotation2.ZERO)
+            .lineTo(new Vector2(1, 0), Rotation2.ZERO)
+            .build();
+    private static final TrajectoryConstraint[] PLACEHOLDER_CONSTRAINTS = {
+            new MaxVelocityConstraint(12.0),
+            new MaxAccelerationConstraint(12.0)
+    };
+
+    private final double period;
+    private final double duration;
+    // Parallel arrays, one entry per sample
+    private final float[] distances;
+    private final float[] xs;
+    private final float[] ys;
+    private final float[] headings;
+    private final float[] rotations;
+    private final float[] curvatures;
+    private final float[] velocities;
+    private final float[] accelerations;
+
+    /**
+     * Creates a {@link SampledTrajectory} from samples. The arrays are used directly, not copied.
+     *
+     * @param period
+     *            Time between samples in seconds.
+     * @param headings
+     *            Path headings in radians, unwrapped.
+     * @param rotations
+     *            Robot rotations in radians, unwrapped.
+     */
+    SampledTrajectory(double period, float[] distances, float[] xs, float[] ys, float[] headings,
+            float[] rotations, float[] curvatures, float[] velocities, float[] accelerations) {
+        super(PLACEHOLDER_PATH, PLACEHOLDER_CONSTRAINTS, 1.0);
+        if (distances.length < 2) {
+            throw new IllegalArgumentException("Sampled trajectory needs at least two samples");
+        }
+        this.period = period;
+        this.duration = period * (distances.length - 1);
+        this.distances = distances;
+        this.xs = xs;
+        this.ys = ys;
+        this.headings = headings;
+        this.rotations = rotations;
+        this.curvatures = curvatures;
+        this.velocities = velocities;
+        this.accelerations = accelerations;
+    }
+
+    /**
+     * Samples a trajectory.
+     *
+     * @param trajectory
+     *            The trajectory to sample.
+     * @param targetPeriod
+     *            The longest time between samples in seconds. The period is shortened so the last
+     *            sample lands on the end of the trajectory.
+     * @return The sampled trajectory.
+     */
+    public static SampledTrajectory sample(Trajectory trajectory, double targetPeriod) {
+        double duration = trajectory.getDuration();
+        int count = Math.max((int) Math.ceil(duration / targetPeriod), 1) + 1;
+        double period = duration / (count - 1);
+
+        float[] distances = new float[count];
+        float[] xs = new float[count];
+        float[] ys = new float[count];
+        float[] headings = new float[count];
+        float[] rotations = new float[count];
+        float[] curvatures = new float[count];
+        float[] velocities = new float[count];
+        float[] accelerations = new float[count];
+
+        double heading = 0, rotation = 0;
+        for (int i = 0; i < count; i++) {
+            Trajectory.State state = trajectory.calculate(Math.min(i * period, duration));
+            Path.State pathState = state.getPathState();
+            distances[i] = (float) pathState.getDistance();
+            xs[i] = (float) pathState.getPosition().x;
+            ys[i] = (float) pathState.getPosition().y;
+            heading = i == 0 ? pathState.getHeading().toRadians()
+                    : unwrap(heading, pathState.getHeading().toRadians());
+            rotation = i == 0 ? pathState.getRotation().toRadians()
+                    : unwrap(rotation, pathState.getRotation().toRadians());
+            headings[i] = (float) heading;
+            rotations[i] = (float) rotation;
+            curvatures[i] = (float) pathState.getCurvature();
+            velocities[i] = (float) state.getVelocity();
+            accelerations[i] = (float) state.getAcceleration();
+        }
+        return new SampledTrajectory(period, distances, xs, ys, headings, rotations, curvatures, velocities,
+                accelerations);
+    }
+
+    /**
+     * Returns the angle equal to {@code angle} that's closest to {@code previous}.
+     */
+    private static double unwrap(double previous, double angle) {
+        return previous + Math.IEEEremainder(angle - previous, 2 * Math.PI);
+    }
+
+    @Override
+    public State calculate(double time) {
+        double position = period > 0 ? Math.min(Math.max(time, 0), duration) / period : 0;
+        int i = Math.min((int) position, distances.length - 2);
+        double t = position - i;
+
+        Path.State pathState = new Path.State(
+                lerp(distances, i, t),
+                new Vector2(lerp(xs, i, t), lerp(ys, i, t)),
+                Rotation2.fromRadians(lerp(headings, i, t)),
+                Rotation2.fromRadians(lerp(rotations, i, t)),
+                lerp(curvatures, i, t));
+        return new State(pathState, lerp(velocities, i, t), lerp(accelerations, i, t));
+    }
+
+    private static double lerp(float[] values, int i, double t) {
+        return values[i] + (values[i + 1] - values[i]) * t;
+    }
+
+    @Override
+    public double getDuration() {
+        return duration;
+    }
+
+    public double getPeriod() {
+        return period;
+    }
+
+    public int getSampleCount() {
+        return distances.length;
+    }
+
+    float[][] getSamples() {
+        return new float[][] { distances, xs, ys, headings, rotations, curvatures, velocities, accelerations };
+    }
+}
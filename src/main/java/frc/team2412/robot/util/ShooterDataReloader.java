@@ -0,0 +1,191 @@
+package frc.team2412.robot.util;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the shooter data CSV and swaps in a new {@link ShooterDataTable} when it changes, so shots
+ * can be retuned by copying a new CSV to the robot without redeploying.
+ *
+ * The CSV is parsed on a background thread. Readers get the whole old table or the whole new one,
+ * never a partly loaded one, since tables are immutable and swapped with a single volatile write. If
+ * the new CSV can't be parsed or has fewer than two points, the old table is kept.
+ */
+public class ShooterDataReloader {
+    public static class ReloaderConstants {
+        // Seconds to wait for more writes after a change, since editors and scp write in several steps
+        public static final double DEBOUNCE_TIME = 0.25;
+        // Distances closer than this are treated as the same point when logging a diff, in inches
+        public static final double DISTANCE_TOLERANCE = 1e-6;
+    }
+
+    private final Path path;
+    private volatile ShooterDataTable table;
+    private volatile int generation = 0;
+
+    private Thread watchThread;
+    private WatchService watchService;
+
+    /**
+     * Creates a new {@link ShooterDataReloader}. Call {@link #start()} to start watching.
+     *
+     * @param fileName
+     *            The path to the shooter data CSV.
+     * @param initialTable
+     *            The table loaded at startup, or null if it couldn't be loaded.
+     */
+    public ShooterDataReloader(String fileName, ShooterDataTable initialTable) {
+        this.path = Paths.get(fileName).toAbsolutePath();
+        this.table = initialTable;
+    }
+
+    /**
+     * Returns the newest table. Safe to call from any thread.
+     *
+     * @return The newest table, or null if none has been loaded.
+     */
+    public ShooterDataTable getTable() {
+        return table;
+    }
+
+    /**
+     * Returns how many times the table has been reloaded since startup.
+     *
+     * @return The number of reloads.
+     */
+    public int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Starts watching the CSV's directory on a daemon thread. Does nothing if already started.
+     */
+    public synchronized void start() {
+        if (watchThread != null) {
+            return;
+        }
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            path.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException err) {
+            System.out.println("Couldn't watch " + path + " for changes: " + err);
+            watchService = null;
+            return;
+        }
+        watchThread = new Thread(this::watch, "Shooter data reloader");
+        watchThread.setDaemon(true);
+        watchThread.start();
+    }
+
+    /**
+     * Stops watching the CSV.
+     */
+    public synchronized void stop() {
+        if (watchThread == null) {
+            return;
+        }
+        try {
+            watchService.close();
+        } catch (IOException err) {
+            System.out.println("Couldn't close shooter data watcher: " + err);
+        }
+        watchThread.interrupt();
+        watchThread = null;
+        watchService = null;
+    }
+
+    private void watch() {
+        WatchService service = watchService;
+        Path fileName = path.getFileName();
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = service.take();
+                boolean changed = false;
+                do {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        changed |= fileName.equals(event.context());
+                    }
+                    key.reset();
+                    // Wait for the rest of the write before parsing
+                    key = changed ? service.poll((long) (ReloaderConstants.DEBOUNCE_TIME * 1000),
+                            TimeUnit.MILLISECONDS) : null;
+                } while (key != null);
+
+                if (changed) {
+                    reload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException err) {
+            // Stopped
+        }
+    }
+
+    /**
+     * Parses the CSV and swaps it in if it's valid. Called from the watch thread, but safe to call
+     * from anywhere.
+     *
+     * @return True if the table was replaced.
+     */
+    public synchronized boolean reload() {
+        ShooterDataTable newTable = ShooterDataTable.fromCSV(path.toString());
+        if (newTable == null || newTable.size() < 2) {
+            System.out.println("Shooter data reload failed, keeping the old table");
+            return false;
+        }
+        ShooterDataTable oldTable = table;
+        logDiff(oldTable, newTable);
+        table = newTable;
+        generation++;
+        System.out.println("Shooter data reloaded, " + newTable.size() + " points");
+        return true;
+    }
+
+    /**
+     * Prints the points added, removed and changed between two tables.
+     *
+     * @param oldTable
+     *            The old table, or null.
+     * @param newTable
+     *            The new table.
+     */
+    public static void logDiff(ShooterDataTable oldTable, ShooterDataTable newTable) {
+        int oldSize = oldTable != null ? oldTable.size() : 0;
+        int newSize = newTable.size();
+        int i = 0, j = 0;
+        int changes = 0;
+        // Both tables are sorted by distance, so walk them together
+        while (i < oldSize || j < newSize) {
+            double oldDistance = i < oldSize ? oldTable.getDistance(i) : Double.POSITIVE_INFINITY;
+            double newDistance = j < newSize ? newTable.getDistance(j) : Double.POSITIVE_INFINITY;
+            if (Math.abs(oldDistance - newDistance) <= ReloaderConstants.DISTANCE_TOLERANCE) {
+                if (oldTable.getAngle(i) != newTable.getAngle(j) || oldTable.getRPM(i) != newTable.getRPM(j)) {
+                    System.out.println("  changed " + newDistance + ": " + oldTable.getAngle(i) + ", "
+                            + oldTable.getRPM(i) + " -> " + newTable.getAngle(j) + ", " + newTable.getRPM(j));
+                    changes++;
+                }
+                i++;
+                j++;
+            } else if (oldDistance < newDistance) {
+                System.out.println("  removed " + oldDistance + ": " + oldTable.getAngle(i) + ", "
+                        + oldTable.getRPM(i));
+                changes++;
+                i++;
+            } else {
+                System.out.println("  added " + newDistance + ": " + newTable.getAngle(j) + ", "
+                        + newTable.getRPM(j));
+                changes++;
+                j++;
+            }
+        }
+        System.out.println("Shooter data diff: " + changes + " points changed");
+    }
+}
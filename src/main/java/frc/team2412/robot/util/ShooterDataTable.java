@@ -0,0 +1,176 @@
+package frc.team2412.robot.util;
+
+import java.util.Arrays;
+
+/**
+ * An immutable, sorted table of shooter data points stored in parallel primitive arrays.
+ *
+ * Lookups use a binary search and write into a caller-owned {@link Sample}, so
+ * {@link #getInterpolated(double, Sample)} does no boxing or allocation. Interpolation and
+ * extrapolation match {@link InterpolatingTreeMap#getInterpolated(Double)}.
+ */
+public class ShooterDataTable {
+    /**
+     * A mutable distance/angle/RPM result, meant to be allocated once and reused every loop.
+     */
+    public static class Sample {
+        private double distance, angle, RPM;
+
+        public double getDistance() {
+            return distance;
+        }
+
+        public double getAngle() {
+            return angle;
+        }
+
+        public double getRPM() {
+            return RPM;
+        }
+
+        private void set(double distance, double angle, double RPM) {
+            this.distance = distance;
+            this.angle = angle;
+            this.RPM = RPM;
+        }
+
+        @Override
+        public String toString() {
+            return "{distance: " + distance + ", angle: " + angle + ", RPM: " + RPM + "}";
+        }
+    }
+
+    private final double[] distances;
+    private final double[] angles;
+    private final double[] RPMs;
+
+    /**
+     * Creates a {@link ShooterDataTable} from an array of {@link ShooterDataDistancePoint}.
+     *
+     * Points are sorted by distance. If two points share a distance, the later one wins, like
+     * {@link InterpolatingTreeMap}.
+     *
+     * @param dataPoints
+     *            The data points to put in the table.
+     */
+    public ShooterDataTable(ShooterDataDistancePoint[] dataPoints) {
+        this(new InterpolatingTreeMap(dataPoints));
+    }
+
+    /**
+     * Creates a {@link ShooterDataTable} containing the same points as an {@link InterpolatingTreeMap}.
+     *
+     * @param map
+     *            The map to copy the points from.
+     */
+    public ShooterDataTable(InterpolatingTreeMap map) {
+        int size = map.size();
+        distances = new double[size];
+        angles = new double[size];
+        RPMs = new double[size];
+
+        int i = 0;
+        for (ShooterDataDistancePoint point : map.values()) {
+            distances[i] = point.getDistance();
+            angles[i] = point.getAngle();
+            RPMs[i] = point.getRPM();
+            i++;
+        }
+    }
+
+    /**
+     * Creates a {@link ShooterDataTable} from a path to a CSV file, using the same parser as
+     * {@link InterpolatingTreeMap#fromCSV(String)}.
+     *
+     * @param fileName
+     *            The path to the CSV file.
+     * @return A {@link ShooterDataTable} from the data in the CSV file, or null if the file couldn't be
+     *         read.
+     */
+    public static ShooterDataTable fromCSV(String fileName) {
+        InterpolatingTreeMap map = InterpolatingTreeMap.fromCSV(fileName);
+        return map != null ? new ShooterDataTable(map) : null;
+    }
+
+    /**
+     * Returns the number of points in the table.
+     *
+     * @return The number of points in the table.
+     */
+    public int size() {
+        return distances.length;
+    }
+
+    /**
+     * Returns the distance of the point at an index.
+     *
+     * @param index
+     *            The index of the point, sorted by distance.
+     * @return The distance in inches.
+     */
+    public double getDistance(int index) {
+        return distances[index];
+    }
+
+    /**
+     * Returns the hood angle of the point at an index.
+     *
+     * @param index
+     *            The index of the point, sorted by distance.
+     * @return The hood angle in degrees.
+     */
+    public double getAngle(int index) {
+        return angles[index];
+    }
+
+    /**
+     * Returns the flywheel RPM of the point at an index.
+     *
+     * @param index
+     *            The index of the point, sorted by distance.
+     * @return The flywheel RPM.
+     */
+    public double getRPM(int index) {
+        return RPMs[index];
+    }
+
+    /**
+     * Gets the value at a specified distance from the origin, interpolating it if there isn't an exact
+     * match, and extrapolating from the two nearest points if the distance is outside the table.
+     *
+     * @param distance
+     *            The distance to get the value from.
+     * @param result
+     *            The {@link Sample} to write the value into.
+     * @return True if {@code result} was written, false if the table has fewer than two points and there
+     *         isn't an exact match.
+     */
+    public boolean getInterpolated(double distance, Sample result) {
+        int size = distances.length;
+        int index = Arrays.binarySearch(distances, distance);
+
+        // Check if we have exact value
+        if (index >= 0) {
+            result.set(distances[index], angles[index], RPMs[index]);
+            return true;
+        }
+
+        if (size < 2) {
+            System.out.println("getInterpolated was called, but ShooterDataTable has fewer than two points");
+            return false;
+        }
+
+        // Index of the first point with a greater distance
+        int ceiling = -1 - index;
+        // Clamp so distances outside the table extrapolate from the two nearest points
+        int floor = Math.min(Math.max(ceiling - 1, 0), size - 2);
+
+        double slopeDistanceDifference = distances[floor + 1] - distances[floor];
+        double distanceOffset = distance - distances[floor];
+        double angle = (angles[floor + 1] - angles[floor]) / slopeDistanceDifference * distanceOffset
+                + angles[floor];
+        double RPM = (RPMs[floor + 1] - RPMs[floor]) / slopeDistanceDifference * distanceOffset + RPMs[floor];
+        result.set(distance, angle, RPM);
+        return true;
+    }
+}
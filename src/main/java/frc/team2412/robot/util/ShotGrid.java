@@ -0,0 +1,212 @@
+package frc.team2412.robot.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Moving shot solutions precomputed on a regular grid of distance, radial velocity and tangential
+ * velocity, so aiming at runtime is a trilinear interpolation into a flat array instead of a
+ * {@link MovingShotSolver} iteration.
+ *
+ * Velocities are the robot's, in inches per second. Radial velocity is toward the hub, and tangential
+ * velocity is counterclockwise around it. Each cell holds the turret yaw offset, hood angle, flywheel
+ * RPM, virtual target distance and time of flight. Lookups outside the grid are clamped to its edges.
+ *
+ * Grids are generated offline by {@link ShotGridGenerator} and deployed as a binary file.
+ */
+public class ShotGrid {
+    private static final int MAGIC = 0x53484f54; // "SHOT"
+    private static final int VERSION = 1;
+
+    private static final int YAW_OFFSET = 0, ANGLE = 1, RPM = 2, DISTANCE = 3, TIME_OF_FLIGHT = 4;
+    public static final int VALUES_PER_CELL = 5;
+
+    private final double distanceMin, distanceStep;
+    private final int distanceCount;
+    private final double radialMin, radialStep;
+    private final int radialCount;
+    private final double tangentialMin, tangentialStep;
+    private final int tangentialCount;
+    private final double[] cells;
+
+    private final double[] result = new double[VALUES_PER_CELL];
+
+    /**
+     * Creates a grid from precomputed cells.
+     *
+     * @param cells
+     *            Cell values, indexed by distance, then radial velocity, then tangential velocity, then
+     *            value.
+     */
+    ShotGrid(double distanceMin, double distanceStep, int distanceCount, double radialMin, double radialStep,
+            int radialCount, double tangentialMin, double tangentialStep, int tangentialCount, double[] cells) {
+        if (distanceCount < 2 || radialCount < 2 || tangentialCount < 2) {
+            throw new IllegalArgumentException("Shot grid needs at least two points on each axis");
+        }
+        if (cells.length != distanceCount * radialCount * tangentialCount * VALUES_PER_CELL) {
+            throw new IllegalArgumentException("Shot grid has " + cells.length + " values, expected "
+                    + distanceCount * radialCount * tangentialCount * VALUES_PER_CELL);
+        }
+        this.distanceMin = distanceMin;
+        this.distanceStep = distanceStep;
+        this.distanceCount = distanceCount;
+        this.radialMin = radialMin;
+        this.radialStep = radialStep;
+        this.radialCount = radialCount;
+        this.tangentialMin = tangentialMin;
+        this.tangentialStep = tangentialStep;
+        this.tangentialCount = tangentialCount;
+        this.cells = cells;
+    }
+
+    /**
+     * Reads a grid written by {@link #write(String)}.
+     *
+     * @param fileName
+     *            The path to the grid file.
+     * @return The grid, or null if the file couldn't be read.
+     */
+    public static ShotGrid fromFile(String fileName) {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(Paths.get(fileName))))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                System.out.println(fileName + " is not a version " + VERSION + " shot grid");
+                return null;
+            }
+            double distanceMin = in.readDouble(), distanceStep = in.readDouble();
+            int distanceCount = in.readInt();
+            double radialMin = in.readDouble(), radialStep = in.readDouble();
+            int radialCount = in.readInt();
+            double tangentialMin = in.readDouble(), tangentialStep = in.readDouble();
+            int tangentialCount = in.readInt();
+            double[] cells = new double[in.readInt()];
+            for (int i = 0; i < cells.length; i++) {
+                cells[i] = in.readDouble();
+            }
+            System.out.println("Loaded " + distanceCount + "x" + radialCount + "x" + tangentialCount
+                    + " shot grid from " + fileName);
+            return new ShotGrid(distanceMin, distanceStep, distanceCount, radialMin, radialStep, radialCount,
+                    tangentialMin, tangentialStep, tangentialCount, cells);
+        } catch (IOException | IllegalArgumentException err) {
+            System.out.println("Couldn't read shot grid " + fileName + ": " + err);
+            return null;
+        }
+    }
+
+    /**
+     * Writes the grid to a file.
+     *
+     * @param fileName
+     *            The path to write to.
+     * @throws IOException
+     *             If the file couldn't be written.
+     */
+    public void write(String fileName) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(Paths.get(fileName))))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeDouble(distanceMin);
+            out.writeDouble(distanceStep);
+            out.writeInt(distanceCount);
+            out.writeDouble(radialMin);
+            out.writeDouble(radialStep);
+            out.writeInt(radialCount);
+            out.writeDouble(tangentialMin);
+            out.writeDouble(tangentialStep);
+            out.writeInt(tangentialCount);
+            out.writeInt(cells.length);
+            for (double value : cells) {
+                out.writeDouble(value);
+            }
+        }
+    }
+
+    /**
+     * Looks up the shot solution for a distance and robot velocity.
+     *
+     * @param distance
+     *            The distance to the hub in inches.
+     * @param radialVelocity
+     *            The robot's velocity toward the hub in inches per second.
+     * @param tangentialVelocity
+     *            The robot's velocity counterclockwise around the hub in inches per second.
+     * @param solution
+     *            The {@link MovingShotSolver.Solution} to write into. Iterations is reported as 0.
+     */
+    public void lookup(double distance, double radialVelocity, double tangentialVelocity,
+            MovingShotSolver.Solution solution) {
+        // Position along each axis in cells, clamped so the upper cell is still in the grid
+        double d = clamp((distance - distanceMin) / distanceStep, distanceCount);
+        double r = clamp((radialVelocity - radialMin) / radialStep, radialCount);
+        double t = clamp((tangentialVelocity - tangentialMin) / tangentialStep, tangentialCount);
+        int d0 = Math.min((int) d, distanceCount - 2);
+        int r0 = Math.min((int) r, radialCount - 2);
+        int t0 = Math.min((int) t, tangentialCount - 2);
+        double fd = d - d0, fr = r - r0, ft = t - t0;
+
+        for (int value = 0; value < VALUES_PER_CELL; value++) {
+            double c00 = lerp(cell(d0, r0, t0, value), cell(d0, r0, t0 + 1, value), ft);
+            double c01 = lerp(cell(d0, r0 + 1, t0, value), cell(d0, r0 + 1, t0 + 1, value), ft);
+            double c10 = lerp(cell(d0 + 1, r0, t0, value), cell(d0 + 1, r0, t0 + 1, value), ft);
+            double c11 = lerp(cell(d0 + 1, r0 + 1, t0, value), cell(d0 + 1, r0 + 1, t0 + 1, value), ft);
+            result[value] = lerp(lerp(c00, c01, fr), lerp(c10, c11, fr), fd);
+        }
+        solution.set(result[DISTANCE], result[YAW_OFFSET], result[ANGLE], result[RPM], result[TIME_OF_FLIGHT], 0,
+                true);
+    }
+
+    private double cell(int d, int r, int t, int value) {
+        return cells[((d * radialCount + r) * tangentialCount + t) * VALUES_PER_CELL + value];
+    }
+
+    private static double clamp(double position, int count) {
+        return Math.min(Math.max(position, 0), count - 1);
+    }
+
+    private static double lerp(double a, double b, double t) {
+        return a + (b - a) * t;
+    }
+
+    /**
+     * Fills a grid by running a {@link MovingShotSolver} at every point.
+     *
+     * @param solver
+     *            The solver.
+     * @return The grid, or null if the solver failed at any point.
+     */
+    public static ShotGrid generate(MovingShotSolver solver, double distanceMin, double distanceStep,
+            int distanceCount, double radialMin, double radialStep, int radialCount, double tangentialMin,
+            double tangentialStep, int tangentialCount) {
+        double[] cells = new double[distanceCount * radialCount * tangentialCount * VALUES_PER_CELL];
+        MovingShotSolver.Solution solution = new MovingShotSolver.Solution();
+        int index = 0;
+        for (int d = 0; d < distanceCount; d++) {
+            for (int r = 0; r < radialCount; r++) {
+                for (int t = 0; t < tangentialCount; t++) {
+                    // Hub straight ahead on +x, so radial velocity toward it is +x and counterclockwise
+                    // around it is -y
+                    double distance = distanceMin + d * distanceStep;
+                    double radial = radialMin + r * radialStep;
+                    double tangential = tangentialMin + t * tangentialStep;
+                    if (!solver.solve(distance, 0, radial, -tangential, solution)) {
+                        return null;
+                    }
+                    cells[index + YAW_OFFSET] = solution.getYawOffset();
+                    cells[index + ANGLE] = solution.getAngle();
+                    cells[index + RPM] = solution.getRPM();
+                    cells[index + DISTANCE] = solution.getDistance();
+                    cells[index + TIME_OF_FLIGHT] = solution.getTimeOfFlight();
+                    index += VALUES_PER_CELL;
+                }
+            }
+        }
+        return new ShotGrid(distanceMin, distanceStep, distanceCount, radialMin, radialStep, radialCount,
+                tangentialMin, tangentialStep, tangentialCount, cells);
+    }
+}
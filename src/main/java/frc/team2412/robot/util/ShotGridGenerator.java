@@ -0,0 +1,56 @@
+package frc.team2412.robot.util;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Generates the deployed {@link ShotGrid} from the shooter data and time of flight CSVs. Run by
+ * ./gradlew generateShotGrid, which runs before every deploy.
+ */
+public final class ShotGridGenerator {
+    public static class ShotGridConstants {
+        public static final String FILE_NAME = "shotGrid.bin";
+
+        // Checked against the solver up to 80 in/s: at most 2.1 degrees of yaw (2.2 in of miss) and 22 RPM,
+        // all of it under 100 in, and at most 0.1 degrees from 100 in out. Twice as coarse on both axes was
+        // 6 degrees.
+        // Inches
+        public static final double DISTANCE_MIN = 60, DISTANCE_STEP = 5;
+        public static final int DISTANCE_COUNT = 49;
+        // Inches per second
+        public static final double VELOCITY_MIN = -160, VELOCITY_STEP = 10;
+        public static final int VELOCITY_COUNT = 33;
+    }
+
+    private ShotGridGenerator() {
+    }
+
+    /**
+     * Generates the grid.
+     *
+     * @param args
+     *            The deploy directory, defaults to src/main/deploy.
+     */
+    public static void main(String... args) throws IOException {
+        File deployDirectory = new File(args.length > 0 ? args[0] : "src/main/deploy");
+        ShooterDataTable shooterData = ShooterDataTable
+                .fromCSV(new File(deployDirectory, "shooterData.csv").getPath());
+        TimeOfFlightTable timeOfFlight = TimeOfFlightTable
+                .fromCSV(new File(deployDirectory, "shooterTimeOfFlight.csv").getPath());
+        if (shooterData == null || timeOfFlight == null) {
+            throw new IOException("Couldn't read shooter tables from " + deployDirectory);
+        }
+
+        ShotGrid grid = ShotGrid.generate(new MovingShotSolver(shooterData, timeOfFlight),
+                ShotGridConstants.DISTANCE_MIN, ShotGridConstants.DISTANCE_STEP, ShotGridConstants.DISTANCE_COUNT,
+                ShotGridConstants.VELOCITY_MIN, ShotGridConstants.VELOCITY_STEP, ShotGridConstants.VELOCITY_COUNT,
+                ShotGridConstants.VELOCITY_MIN, ShotGridConstants.VELOCITY_STEP, ShotGridConstants.VELOCITY_COUNT);
+        if (grid == null) {
+            throw new IOException("Shooter data table couldn't be interpolated");
+        }
+
+        File output = new File(deployDirectory, ShotGridConstants.FILE_NAME);
+        grid.write(output.getPath());
+        System.out.println("Wrote shot grid to " + output);
+    }
+}
@@ -0,0 +1,108 @@
+package frc.team2412.robot.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A lock-free, bounded queue for handing objects from exactly one producer thread to exactly one
+ * consumer thread.
+ *
+ * When the queue is full, {@link #offer(Object)} drops the oldest item to make room, so the newest item
+ * is never lost and {@link #pollLatest()} never returns a stale one.
+ *
+ * Only the producer writes {@code tail}. Both threads advance {@code head} with a compare-and-set: the
+ * consumer to take an item, the producer to drop one. The consumer only returns an item if its
+ * compare-and-set succeeds, so it never returns an item the producer has dropped or overwritten. Slots
+ * keep their item until it's overwritten.
+ *
+ * @param <T>
+ *            type of the items in the queue
+ */
+public class SpscRingBuffer<T> {
+    private final AtomicReferenceArray<T> items;
+    private final int mask;
+
+    // Next index to read, advanced by the consumer when reading and by the producer when dropping
+    private final AtomicLong head = new AtomicLong();
+    // Next index to write, written only by the producer
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Creates a new {@link SpscRingBuffer}.
+     *
+     * @param capacity
+     *            The maximum number of items in the queue, rounded up to a power of two.
+     */
+    public SpscRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 1) - 1) << 1;
+        items = new AtomicReferenceArray<>(Math.max(size, 1));
+        mask = items.length() - 1;
+    }
+
+    /**
+     * Adds an item to the queue, dropping the oldest item if it's full. Must only be called from the
+     * producer thread.
+     *
+     * @param item
+     *            The item to add, not null.
+     * @return True if the item was added without dropping another, false if the oldest item was dropped.
+     */
+    public boolean offer(T item) {
+        long currentTail = tail.get();
+        boolean dropped = false;
+        long currentHead;
+        while (currentTail - (currentHead = head.get()) >= items.length()) {
+            // Fails if the consumer took the oldest item first, which also makes room
+            if (head.compareAndSet(currentHead, currentHead + 1)) {
+                dropped = true;
+            }
+        }
+        items.set((int) (currentTail & mask), item);
+        // Publishes the item to the consumer
+        tail.lazySet(currentTail + 1);
+        return !dropped;
+    }
+
+    /**
+     * Removes the oldest item from the queue. Must only be called from the consumer thread.
+     *
+     * @return The oldest item, or null if the queue is empty.
+     */
+    public T poll() {
+        while (true) {
+            long currentHead = head.get();
+            if (currentHead >= tail.get()) {
+                return null;
+            }
+            T item = items.get((int) (currentHead & mask));
+            // Fails if the producer dropped this item, which may have been overwritten, so try the next one
+            if (head.compareAndSet(currentHead, currentHead + 1)) {
+                return item;
+            }
+        }
+    }
+
+    /**
+     * Removes every item from the queue, returning the newest. Must only be called from the consumer
+     * thread.
+     *
+     * @return The newest item, or null if the queue is empty.
+     */
+    public T pollLatest() {
+        T latest = null;
+        T item;
+        while ((item = poll()) != null) {
+            latest = item;
+        }
+        return latest;
+    }
+
+    /**
+     * Returns the capacity of the queue.
+     *
+     * @return The maximum number of items in the queue.
+     */
+    public int capacity() {
+        return items.length();
+    }
+}
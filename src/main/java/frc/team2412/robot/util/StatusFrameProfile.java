@@ -0,0 +1,159 @@
+package frc.team2412.robot.util;
+
+import com.ctre.phoenix.motorcontrol.StatusFrameEnhanced;
+import com.ctre.phoenix.motorcontrol.can.WPI_TalonFX;
+import com.revrobotics.CANSparkMax;
+import com.revrobotics.CANSparkMaxLowLevel.PeriodicFrame;
+
+/**
+ * CAN status frame periods for each role a motor can have, so each motor only broadcasts the signals
+ * its subsystem actually reads, as often as it reads them.
+ *
+ * Periods are in milliseconds. 255 is the slowest a Talon FX allows, and is used for frames nothing
+ * reads. Spark MAX profiles only set the three Spark MAX frame periods.
+ */
+public enum StatusFrameProfile {
+    /**
+     * Turret position, read every loop and recorded for latency compensation.
+     */
+    POSITION_TURRET(20, 10, 255, 255, 255),
+    /**
+     * Velocity controlled flywheel leader. Reads velocity and closed loop error each loop, and its
+     * general frame drives its followers.
+     */
+    VELOCITY_FLYWHEEL(10, 20, 20, 250, 255),
+    /**
+     * Follower of another motor. Only its temperature is logged.
+     */
+    FOLLOWER(100, 255, 255, 250, 255),
+    /**
+     * Position controlled mechanism whose position and velocity are read every loop, like the climb arm.
+     */
+    POSITION_MECHANISM(20, 20, 255, 255, 255),
+    /**
+     * Open loop roller. Only its supply current is read, for ball detection.
+     */
+    OPEN_LOOP_ROLLER(100, 255, 255, 255, 50),
+    /**
+     * Spark MAX position servo, like the hood. Only position is read.
+     */
+    SPARK_POSITION(100, 250, 20);
+
+    // Extended CAN frame with 8 data bytes, not counting bit stuffing
+    public static final double CAN_FRAME_BITS = 128;
+    public static final double CAN_BITS_PER_SECOND = 1_000_000;
+
+    // Frames every Talon FX profile turns all the way down, since nothing on the robot uses them
+    private static final StatusFrameEnhanced[] UNUSED_TALON_FRAMES = {
+            StatusFrameEnhanced.Status_10_Targets,
+            StatusFrameEnhanced.Status_12_Feedback1,
+            StatusFrameEnhanced.Status_14_Turn_PIDF1,
+            StatusFrameEnhanced.Status_21_FeedbackIntegrated,
+    };
+    private static final int UNUSED_PERIOD = 255;
+
+    private static double totalFramesPerSecond = 0;
+
+    private final boolean sparkMax;
+    private final int[] periods;
+
+    /**
+     * Talon FX profile.
+     */
+    StatusFrameProfile(int general, int feedback0, int pidf0, int temperature, int current) {
+        sparkMax = false;
+        periods = new int[] { general, feedback0, pidf0, temperature, current };
+    }
+
+    /**
+     * Spark MAX profile.
+     */
+    StatusFrameProfile(int status0, int status1, int status2) {
+        sparkMax = true;
+        periods = new int[] { status0, status1, status2 };
+    }
+
+    /**
+     * Applies this profile to a Talon FX. Should be called after any factory default reset.
+     *
+     * @param name
+     *            The name of the motor, for the bus load report.
+     * @param motor
+     *            The motor.
+     */
+    public void apply(String name, WPI_TalonFX motor) {
+        if (sparkMax) {
+            System.out.println("Status frame profile " + this + " is for Spark MAXes, not applied to " + name);
+            return;
+        }
+        motor.setStatusFramePeriod(StatusFrameEnhanced.Status_1_General, periods[0]);
+        motor.setStatusFramePeriod(StatusFrameEnhanced.Status_2_Feedback0, periods[1]);
+        motor.setStatusFramePeriod(StatusFrameEnhanced.Status_13_Base_PIDF0, periods[2]);
+        motor.setStatusFramePeriod(StatusFrameEnhanced.Status_4_AinTempVbat, periods[3]);
+        motor.setStatusFramePeriod(StatusFrameEnhanced.Status_Brushless_Current, periods[4]);
+        for (StatusFrameEnhanced frame : UNUSED_TALON_FRAMES) {
+            motor.setStatusFramePeriod(frame, UNUSED_PERIOD);
+        }
+        report(name);
+    }
+
+    /**
+     * Applies this profile to a Spark MAX. Should be called after any factory default reset.
+     *
+     * @param name
+     *            The name of the motor, for the bus load report.
+     * @param motor
+     *            The motor.
+     */
+    public void apply(String name, CANSparkMax motor) {
+        if (!sparkMax) {
+            System.out.println("Status frame profile " + this + " is for Talon FXes, not applied to " + name);
+            return;
+        }
+        motor.setPeriodicFramePeriod(PeriodicFrame.kStatus0, periods[0]);
+        motor.setPeriodicFramePeriod(PeriodicFrame.kStatus1, periods[1]);
+        motor.setPeriodicFramePeriod(PeriodicFrame.kStatus2, periods[2]);
+        report(name);
+    }
+
+    /**
+     * Returns the number of status frames per second a motor with this profile sends.
+     *
+     * @return Frames per second.
+     */
+    public double getFramesPerSecond() {
+        double framesPerSecond = 0;
+        for (int period : periods) {
+            framesPerSecond += 1000.0 / period;
+        }
+        if (!sparkMax) {
+            framesPerSecond += UNUSED_TALON_FRAMES.length * 1000.0 / UNUSED_PERIOD;
+        }
+        return framesPerSecond;
+    }
+
+    /**
+     * Returns the estimated fraction of a 1 Mbit/s CAN bus a motor with this profile uses.
+     *
+     * @return Bus load, from 0 to 1.
+     */
+    public double getEstimatedBusLoad() {
+        return getFramesPerSecond() * CAN_FRAME_BITS / CAN_BITS_PER_SECOND;
+    }
+
+    /**
+     * Returns the estimated bus load of every motor a profile has been applied to so far. Motors on
+     * different CAN buses are counted together.
+     *
+     * @return Bus load, from 0 to 1.
+     */
+    public static double getTotalEstimatedBusLoad() {
+        return totalFramesPerSecond * CAN_FRAME_BITS / CAN_BITS_PER_SECOND;
+    }
+
+    private void report(String name) {
+        totalFramesPerSecond += getFramesPerSecond();
+        System.out.printf("%s status frames: %s, %.0f frames/s, %.1f%% of CAN bus%n", name, this,
+                getFramesPerSecond(), getEstimatedBusLoad() * 100);
+    }
+}
@@ -1,42 +1,94 @@
 package frc.team2412.robot.util;
 
-import java.util.ArrayDeque;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.Queue;
-
-import edu.wpi.first.wpilibj.Timer;
-
 /**
  * A class that implements a median filter based on how recent information is.
+ *
+ * Samples are kept in a ring buffer of primitive time/value pairs, and ordered using two indexed
+ * heaps: a max-heap of the lower half of the window and a min-heap of the upper half. Each heap
+ * stores ring buffer slots and every slot remembers its position in its heap, so both adding a new
+ * sample and evicting an old one take O(log n).
  */
 public class TimeBasedMedianFilter {
+    private static final int DEFAULT_INITIAL_CAPACITY = 64;
 
-    private static class TimeData {
-        public final double time;
-        public final double data;
+    private final double filterTime;
+    private final TimeSource timeSource;
 
-        public TimeData(double time, double data) {
-            this.time = time;
-            this.data = data;
-        }
-    }
+    // Ring buffer of samples, oldest at head
+    private double[] times;
+    private double[] values;
+    private int head;
+    private int size;
 
-    private final Queue<TimeData> values;
-    private final List<Double> orderedValues;
-    private final double filterTime;
+    // Which heap each slot is in, and where in that heap
+    private boolean[] inLower;
+    private int[] heapIndices;
+
+    // Heaps of slots; lower is a max-heap, upper is a min-heap
+    private int[] lower;
+    private int lowerSize;
+    private int[] upper;
+    private int upperSize;
 
     /**
-     * Creates a new {@code TimeBasedAverageFilter}.
+     * Creates a new {@code TimeBasedMedianFilter}.
      *
      * @param filterTime
-     *            Length of time in seconds that inputs affect average.
+     *            Length of time in seconds that inputs affect the median.
      */
     public TimeBasedMedianFilter(double filterTime) {
+        this(filterTime, DEFAULT_INITIAL_CAPACITY);
+    }
+
+    /**
+     * Creates a new {@code TimeBasedMedianFilter}.
+     *
+     * @param filterTime
+     *            Length of time in seconds that inputs affect the median.
+     * @param timeSource
+     *            Where {@link #calculate(double)} gets timestamps from.
+     */
+    public TimeBasedMedianFilter(double filterTime, TimeSource timeSource) {
+        this(filterTime, DEFAULT_INITIAL_CAPACITY, timeSource);
+    }
+
+    /**
+     * Creates a new {@code TimeBasedMedianFilter}.
+     *
+     * @param filterTime
+     *            Length of time in seconds that inputs affect the median.
+     * @param initialCapacity
+     *            Number of samples to allocate space for. Should be at least the number of samples
+     *            expected in one window, otherwise the buffers grow (and allocate) while warming up.
+     */
+    public TimeBasedMedianFilter(double filterTime, int initialCapacity) {
+        this(filterTime, initialCapacity, TimeSource.FPGA);
+    }
+
+    /**
+     * Creates a new {@code TimeBasedMedianFilter}.
+     *
+     * @param filterTime
+     *            Length of time in seconds that inputs affect the median.
+     * @param initialCapacity
+     *            Number of samples to allocate space for. Should be at least the number of samples
+     *            expected in one window, otherwise the buffers grow (and allocate) while warming up.
+     * @param timeSource
+     *            Where {@link #calculate(double)} gets timestamps from.
+     */
+    public TimeBasedMedianFilter(double filterTime, int initialCapacity, TimeSource timeSource) {
         this.filterTime = filterTime;
-        this.values = new ArrayDeque<>();
-        this.orderedValues = new ArrayList<>();
+        this.timeSource = timeSource;
+        allocate(Math.max(initialCapacity, 1));
+    }
+
+    private void allocate(int capacity) {
+        times = new double[capacity];
+        values = new double[capacity];
+        inLower = new boolean[capacity];
+        heapIndices = new int[capacity];
+        lower = new int[capacity];
+        upper = new int[capacity];
     }
 
     /**
@@ -47,33 +99,194 @@ public class TimeBasedMedianFilter {
      * @return The median of the values within a certain time window, including the next value.
      */
     public double calculate(double next) {
-        double time = Timer.getFPGATimestamp();
-        // Add value to queue
-        values.add(new TimeData(time, next));
-        // Insert at appropriate position to keep list sorted
-        int index = Collections.binarySearch(orderedValues, next);
-        if (index < 0) {
-            index = -1 - index;
+        return calculate(next, timeSource.getTime());
+    }
+
+    /**
+     * Calculates the median of the most recent values for the next value of the input stream, using an
+     * explicit timestamp.
+     *
+     * @param next
+     *            The next input value.
+     * @param time
+     *            The time of the input value in seconds. Should not be earlier than the previous time.
+     * @return The median of the values within a certain time window, including the next value.
+     */
+    public double calculate(double next, double time) {
+        // Add value to ring buffer and heaps
+        if (size == times.length) {
+            grow();
         }
-        orderedValues.add(index, next);
+        int slot = (head + size) % times.length;
+        times[slot] = time;
+        values[slot] = next;
+        size++;
+        insert(slot);
         // Remove values that are too old
         final double cutoffTime = time - filterTime;
-        while (values.peek().time < cutoffTime) {
-            orderedValues.remove(Collections.binarySearch(orderedValues, values.remove().data));
+        while (times[head] < cutoffTime) {
+            remove(head);
+            head = (head + 1) % times.length;
+            size--;
         }
         // Calculate median
-        int size = values.size();
         if (size % 2 != 0) {
-            return orderedValues.get(size / 2);
+            return values[lower[0]];
         }
-        return (orderedValues.get(size / 2 - 1) + orderedValues.get(size / 2)) / 2.0;
+        return (values[lower[0]] + values[upper[0]]) / 2.0;
     }
 
     /**
      * Resets the filter, clearing the window of all elements
      */
     public void reset() {
-        values.clear();
-        // <o/ dabs
+        head = 0;
+        size = 0;
+        lowerSize = 0;
+        upperSize = 0;
+    }
+
+    /**
+     * Doubles the capacity, moving the samples to the start of the new ring buffer and updating the
+     * heaps to point at their new slots.
+     */
+    private void grow() {
+        int oldCapacity = times.length;
+        double[] oldTimes = times;
+        double[] oldValues = values;
+        boolean[] oldInLower = inLower;
+        int[] oldHeapIndices = heapIndices;
+        int[] oldLower = lower;
+        int[] oldUpper = upper;
+        allocate(oldCapacity * 2);
+
+        for (int i = 0; i < size; i++) {
+            int oldSlot = (head + i) % oldCapacity;
+            times[i] = oldTimes[oldSlot];
+            values[i] = oldValues[oldSlot];
+            inLower[i] = oldInLower[oldSlot];
+            heapIndices[i] = oldHeapIndices[oldSlot];
+        }
+        for (int i = 0; i < lowerSize; i++) {
+            lower[i] = (oldLower[i] - head + oldCapacity) % oldCapacity;
+        }
+        for (int i = 0; i < upperSize; i++) {
+            upper[i] = (oldUpper[i] - head + oldCapacity) % oldCapacity;
+        }
+        head = 0;
+    }
+
+    private void insert(int slot) {
+        if (lowerSize == 0 || values[slot] <= values[lower[0]]) {
+            inLower[slot] = true;
+            lower[lowerSize] = slot;
+            heapIndices[slot] = lowerSize;
+            lowerSize++;
+            siftUp(true, lowerSize - 1);
+        } else {
+            inLower[slot] = false;
+            upper[upperSize] = slot;
+            heapIndices[slot] = upperSize;
+            upperSize++;
+            siftUp(false, upperSize - 1);
+        }
+        rebalance();
+    }
+
+    private void remove(int slot) {
+        boolean isLower = inLower[slot];
+        int[] heap = isLower ? lower : upper;
+        int index = heapIndices[slot];
+        int last = (isLower ? --lowerSize : --upperSize);
+        if (index != last) {
+            // Move the last element into the hole, then restore the heap in whichever direction it's off
+            int moved = heap[last];
+            set(heap, index, moved);
+            siftDown(isLower, index);
+            siftUp(isLower, heapIndices[moved]);
+        }
+        rebalance();
+    }
+
+    /**
+     * Keeps the lower heap the same size as the upper heap or one larger, so the median is always at
+     * the top of the heaps.
+     */
+    private void rebalance() {
+        if (lowerSize > upperSize + 1) {
+            int slot = popTop(true);
+            inLower[slot] = false;
+            upper[upperSize] = slot;
+            heapIndices[slot] = upperSize;
+            upperSize++;
+            siftUp(false, upperSize - 1);
+        } else if (upperSize > lowerSize) {
+            int slot = popTop(false);
+            inLower[slot] = true;
+            lower[lowerSize] = slot;
+            heapIndices[slot] = lowerSize;
+            lowerSize++;
+            siftUp(true, lowerSize - 1);
+        }
+    }
+
+    private int popTop(boolean isLower) {
+        int[] heap = isLower ? lower : upper;
+        int top = heap[0];
+        int last = (isLower ? --lowerSize : --upperSize);
+        if (last > 0) {
+            set(heap, 0, heap[last]);
+            siftDown(isLower, 0);
+        }
+        return top;
+    }
+
+    /**
+     * Returns whether the slot at index a should be above the slot at index b in the heap.
+     */
+    private boolean above(boolean isLower, int[] heap, int a, int b) {
+        return isLower ? values[heap[a]] > values[heap[b]] : values[heap[a]] < values[heap[b]];
+    }
+
+    private void set(int[] heap, int index, int slot) {
+        heap[index] = slot;
+        heapIndices[slot] = index;
+    }
+
+    private void swap(int[] heap, int a, int b) {
+        int slotA = heap[a];
+        set(heap, a, heap[b]);
+        set(heap, b, slotA);
+    }
+
+    private void siftUp(boolean isLower, int index) {
+        int[] heap = isLower ? lower : upper;
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!above(isLower, heap, index, parent)) {
+                break;
+            }
+            swap(heap, index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(boolean isLower, int index) {
+        int[] heap = isLower ? lower : upper;
+        int heapSize = isLower ? lowerSize : upperSize;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && above(isLower, heap, child + 1, child)) {
+                child++;
+            }
+            if (!above(isLower, heap, child, index)) {
+                break;
+            }
+            swap(heap, index, child);
+            index = child;
+        }
     }
 }
@@ -1,26 +1,67 @@
 package frc.team2412.robot.util;
 
-import java.util.ArrayDeque;
-import java.util.Queue;
-
-import edu.wpi.first.wpilibj.Timer;
-
 /**
  * A class that implements a moving average filter with a limit on the age of data.
+ *
+ * Samples are kept in a ring buffer of primitive time/value pairs, and the filter keeps a running
+ * sum that is updated as samples are added and evicted, so each step is O(1) regardless of the window
+ * length. The running sums use Kahan (Neumaier) compensation so adding and subtracting the same
+ * values over a whole match doesn't drift.
+ *
+ * The filter can also average over time instead of over samples, integrating the input with the
+ * trapezoidal rule, which weights samples properly when they arrive at irregular intervals. The window
+ * then covers exactly {@code filterTime}: the segment between the newest evicted sample and the oldest
+ * kept one is cut at the cutoff time, with the value there interpolated.
  */
 public class TimeBasedMovingAverageFilter {
-    private static class TimeData {
-        public final double time;
-        public final double data;
+    private static final int DEFAULT_INITIAL_CAPACITY = 64;
+
+    /**
+     * A compensated running sum.
+     */
+    private static class KahanSum {
+        private double sum;
+        private double compensation;
+
+        public void add(double value) {
+            double total = sum + value;
+            if (Math.abs(sum) >= Math.abs(value)) {
+                compensation += (sum - total) + value;
+            } else {
+                compensation += (value - total) + sum;
+            }
+            sum = total;
+        }
+
+        public double get() {
+            return sum + compensation;
+        }
 
-        public TimeData(double time, double data) {
-            this.time = time;
-            this.data = data;
+        public void reset() {
+            sum = 0;
+            compensation = 0;
         }
     }
 
-    private final Queue<TimeData> inputs;
     private final double filterTime;
+    private final boolean timeWeighted;
+    private final TimeSource timeSource;
+
+    // Ring buffer of samples, oldest at head
+    private double[] times;
+    private double[] values;
+    private int head;
+    private int size;
+
+    // Newest sample evicted from the window, for interpolating at the cutoff time
+    private boolean hasEvicted;
+    private double evictedTime;
+    private double evictedValue;
+
+    // Sum of the values in the window
+    private final KahanSum valueSum = new KahanSum();
+    // Sum of the trapezoids between consecutive samples in the window
+    private final KahanSum areaSum = new KahanSum();
 
     /**
      * Creates a new {@link TimeBasedMovingAverageFilter}.
@@ -29,8 +70,69 @@ public class TimeBasedMovingAverageFilter {
      *            Length of time in seconds that inputs affects the moving average.
      */
     public TimeBasedMovingAverageFilter(double filterTime) {
-        this.inputs = new ArrayDeque<>();
+        this(filterTime, false);
+    }
+
+    /**
+     * Creates a new {@link TimeBasedMovingAverageFilter}.
+     *
+     * @param filterTime
+     *            Length of time in seconds that inputs affects the moving average.
+     * @param timeSource
+     *            Where {@link #calculate(double)} gets timestamps from.
+     */
+    public TimeBasedMovingAverageFilter(double filterTime, TimeSource timeSource) {
+        this(filterTime, false, DEFAULT_INITIAL_CAPACITY, timeSource);
+    }
+
+    /**
+     * Creates a new {@link TimeBasedMovingAverageFilter}.
+     *
+     * @param filterTime
+     *            Length of time in seconds that inputs affects the moving average.
+     * @param timeWeighted
+     *            If true, average over time using the trapezoidal rule instead of averaging samples.
+     */
+    public TimeBasedMovingAverageFilter(double filterTime, boolean timeWeighted) {
+        this(filterTime, timeWeighted, DEFAULT_INITIAL_CAPACITY);
+    }
+
+    /**
+     * Creates a new {@link TimeBasedMovingAverageFilter}.
+     *
+     * @param filterTime
+     *            Length of time in seconds that inputs affects the moving average.
+     * @param timeWeighted
+     *            If true, average over time using the trapezoidal rule instead of averaging samples.
+     * @param initialCapacity
+     *            Number of samples to allocate space for. Should be at least the number of samples
+     *            expected in one window, otherwise the buffer grows (and allocates) while warming up.
+     */
+    public TimeBasedMovingAverageFilter(double filterTime, boolean timeWeighted, int initialCapacity) {
+        this(filterTime, timeWeighted, initialCapacity, TimeSource.FPGA);
+    }
+
+    /**
+     * Creates a new {@link TimeBasedMovingAverageFilter}.
+     *
+     * @param filterTime
+     *            Length of time in seconds that inputs affects the moving average.
+     * @param timeWeighted
+     *            If true, average over time using the trapezoidal rule instead of averaging samples.
+     * @param initialCapacity
+     *            Number of samples to allocate space for. Should be at least the number of samples
+     *            expected in one window, otherwise the buffer grows (and allocates) while warming up.
+     * @param timeSource
+     *            Where {@link #calculate(double)} gets timestamps from.
+     */
+    public TimeBasedMovingAverageFilter(double filterTime, boolean timeWeighted, int initialCapacity,
+            TimeSource timeSource) {
         this.filterTime = filterTime;
+        this.timeWeighted = timeWeighted;
+        this.timeSource = timeSource;
+        int capacity = Math.max(initialCapacity, 1);
+        this.times = new double[capacity];
+        this.values = new double[capacity];
     }
 
     /**
@@ -41,26 +143,98 @@ public class TimeBasedMovingAverageFilter {
      * @return The filtered value at this step.
      */
     public double calculate(double currentInput) {
-        double time = Timer.getFPGATimestamp();
-        // Add value to queue
-        inputs.add(new TimeData(time, currentInput));
+        return calculate(currentInput, timeSource.getTime());
+    }
+
+    /**
+     * Calculates the next value of the filter, using an explicit timestamp.
+     *
+     * @param currentInput
+     *            Current input value.
+     * @param time
+     *            The time of the input value in seconds. Should not be earlier than the previous time.
+     * @return The filtered value at this step.
+     */
+    public double calculate(double currentInput, double time) {
+        // Add value to ring buffer
+        if (size == times.length) {
+            grow();
+        }
+        if (size > 0) {
+            int newest = (head + size - 1) % times.length;
+            areaSum.add(trapezoid(times[newest], values[newest], time, currentInput));
+        }
+        int slot = (head + size) % times.length;
+        times[slot] = time;
+        values[slot] = currentInput;
+        size++;
+        valueSum.add(currentInput);
         // Remove values that are too old
         final double cutoffTime = time - filterTime;
-        while (inputs.peek().time < cutoffTime) {
-            inputs.remove();
+        while (times[head] < cutoffTime) {
+            int next = (head + 1) % times.length;
+            areaSum.add(-trapezoid(times[head], values[head], times[next], values[next]));
+            valueSum.add(-values[head]);
+            hasEvicted = true;
+            evictedTime = times[head];
+            evictedValue = values[head];
+            head = next;
+            size--;
+        }
+        if (size == 1) {
+            // Nothing left to drift against, so start the sums over exactly
+            valueSum.reset();
+            valueSum.add(currentInput);
+            areaSum.reset();
         }
-        // Calculate mean average
-        double total = 0;
-        for (TimeData prevInput : inputs) {
-            total += prevInput.data;
+        // Calculate average
+        if (timeWeighted) {
+            double area = areaSum.get();
+            double startTime = times[head];
+            if (hasEvicted && startTime > cutoffTime) {
+                // Include the part of the segment crossing the cutoff
+                double cutoffValue = evictedValue
+                        + (values[head] - evictedValue) * (cutoffTime - evictedTime) / (startTime - evictedTime);
+                area += trapezoid(cutoffTime, cutoffValue, startTime, values[head]);
+                startTime = cutoffTime;
+            }
+            double duration = time - startTime;
+            if (duration > 0) {
+                return area / duration;
+            }
         }
-        return total / inputs.size();
+        return valueSum.get() / size;
     }
 
     /**
      * Reset the filter state.
      */
     public void reset() {
-        inputs.clear();
+        head = 0;
+        size = 0;
+        hasEvicted = false;
+        valueSum.reset();
+        areaSum.reset();
+    }
+
+    private static double trapezoid(double startTime, double startValue, double endTime, double endValue) {
+        return (endTime - startTime) * (startValue + endValue) / 2;
+    }
+
+    /**
+     * Doubles the capacity, moving the samples to the start of the new ring buffer.
+     */
+    private void grow() {
+        int oldCapacity = times.length;
+        double[] newTimes = new double[oldCapacity * 2];
+        double[] newValues = new double[oldCapacity * 2];
+        for (int i = 0; i < size; i++) {
+            int oldSlot = (head + i) % oldCapacity;
+            newTimes[i] = times[oldSlot];
+            newValues[i] = values[oldSlot];
+        }
+        times = newTimes;
+        values = newValues;
+        head = 0;
     }
 }
@@ -0,0 +1,122 @@
+package frc.team2412.robot.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.TreeMap;
+
+/**
+ * An immutable, sorted table of ball time of flight against shot distance, stored in parallel primitive
+ * arrays. Lookups interpolate between points, and extrapolate from the two nearest points outside the
+ * table, like {@link ShooterDataTable}.
+ */
+public class TimeOfFlightTable {
+    private final double[] distances;
+    private final double[] times;
+
+    /**
+     * Creates a new {@link TimeOfFlightTable}.
+     *
+     * @param points
+     *            Map of distance (inches) to time of flight (seconds).
+     */
+    public TimeOfFlightTable(TreeMap<Double, Double> points) {
+        distances = new double[points.size()];
+        times = new double[points.size()];
+        int i = 0;
+        for (var point : points.entrySet()) {
+            distances[i] = point.getKey();
+            times[i] = point.getValue();
+            i++;
+        }
+    }
+
+    /**
+     * Creates a {@link TimeOfFlightTable} from a CSV file of distance (inches) and time of flight
+     * (seconds). Comments start with '#' or '//', like the shooter data CSV.
+     *
+     * @param fileName
+     *            The path to the CSV file.
+     * @return A {@link TimeOfFlightTable} from the data in the CSV file, or null if the file couldn't be
+     *         read.
+     */
+    public static TimeOfFlightTable fromCSV(String fileName) {
+        System.out.println("Deserializing " + fileName + " to a TimeOfFlightTable");
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(fileName))) {
+            TreeMap<Double, Double> points = new TreeMap<>();
+            String line;
+            int lineNum = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNum++;
+                int hashtagIndex = line.indexOf("#");
+                if (hashtagIndex != -1) {
+                    line = line.substring(0, hashtagIndex);
+                }
+                int doubleSlashIndex = line.indexOf("//");
+                if (doubleSlashIndex != -1) {
+                    line = line.substring(0, doubleSlashIndex);
+                }
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                String[] items = line.split(",", -1);
+                if (items.length < 2) {
+                    System.out.println("Line #" + lineNum + ": Less than 2 items, skipping line");
+                    continue;
+                }
+                double distance, time;
+                try {
+                    distance = Double.parseDouble(items[0]);
+                    time = Double.parseDouble(items[1]);
+                } catch (NumberFormatException err) {
+                    System.out.println("Line #" + lineNum + ": Non-numerical value, skipping line");
+                    continue;
+                }
+                if (distance < 0 || time < 0) {
+                    System.out.println("Line #" + lineNum + ": Negative value, skipping line");
+                    continue;
+                }
+                points.put(distance, time);
+            }
+            System.out.println("Done deserializing CSV, " + points.size() + " points");
+            return new TimeOfFlightTable(points);
+        } catch (IOException err) {
+            err.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Returns the time of flight at a distance.
+     *
+     * @param distance
+     *            The shot distance in inches.
+     * @return The time of flight in seconds, never negative. 0 if the table is empty.
+     */
+    public double getTimeOfFlight(double distance) {
+        int size = distances.length;
+        if (size == 0) {
+            return 0;
+        }
+        if (size == 1) {
+            return times[0];
+        }
+        int index = Arrays.binarySearch(distances, distance);
+        if (index >= 0) {
+            return times[index];
+        }
+
+        // Clamp so distances outside the table extrapolate from the two nearest points
+        int floor = Math.min(Math.max(-2 - index, 0), size - 2);
+        double time = times[floor] + (times[floor + 1] - times[floor]) / (distances[floor + 1] - distances[floor])
+                * (distance - distances[floor]);
+        return Math.max(time, 0);
+    }
+
+    public int size() {
+        return distances.length;
+    }
+}
@@ -0,0 +1,24 @@
+package frc.team2412.robot.util;
+
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * A source of timestamps, in seconds, for classes that filter or rate limit based on time.
+ *
+ * Defaults to {@link #FPGA}. Replays and benchmarks can pass their own source (or call the overloads
+ * that take an explicit timestamp) to run faster than real time.
+ */
+@FunctionalInterface
+public interface TimeSource {
+    /**
+     * The FPGA timestamp, from {@link Timer#getFPGATimestamp()}.
+     */
+    TimeSource FPGA = Timer::getFPGATimestamp;
+
+    /**
+     * Returns the current time.
+     *
+     * @return The current time in seconds.
+     */
+    double getTime();
+}
@@ -0,0 +1,93 @@
+package frc.team2412.robot.util;
+
+/**
+ * A histogram of durations with fixed-width bins, for finding percentiles of loop timing without
+ * storing every sample or allocating.
+ *
+ * Durations past the last bin are counted in an overflow bin, which reports the exact maximum.
+ */
+public class TimingHistogram {
+    private final double binWidth;
+    private final long[] counts;
+    private long total;
+    private double max;
+
+    /**
+     * Creates a new {@link TimingHistogram}.
+     *
+     * @param binWidth
+     *            The width of each bin in seconds.
+     * @param range
+     *            The largest duration in seconds to sort into bins; larger durations go in the overflow
+     *            bin.
+     */
+    public TimingHistogram(double binWidth, double range) {
+        this.binWidth = binWidth;
+        counts = new long[(int) Math.ceil(range / binWidth) + 1];
+    }
+
+    /**
+     * Records a duration.
+     *
+     * @param duration
+     *            The duration in seconds. Negative durations are recorded as 0.
+     */
+    public void record(double duration) {
+        duration = Math.max(duration, 0);
+        int bin = (int) Math.min(duration / binWidth, counts.length - 1);
+        counts[bin]++;
+        total++;
+        max = Math.max(max, duration);
+    }
+
+    /**
+     * Returns a percentile of the recorded durations, as the upper edge of the bin it falls in.
+     *
+     * @param percentile
+     *            The percentile, from 0 to 100.
+     * @return The duration in seconds, or 0 if nothing has been recorded.
+     */
+    public double getPercentile(double percentile) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < counts.length - 1; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min((i + 1) * binWidth, max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Returns the largest recorded duration.
+     *
+     * @return The duration in seconds, or 0 if nothing has been recorded.
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Returns the number of recorded durations.
+     *
+     * @return The count.
+     */
+    public long getCount() {
+        return total;
+    }
+
+    /**
+     * Removes all recorded durations.
+     */
+    public void reset() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = 0;
+        }
+        total = 0;
+        max = 0;
+    }
+}
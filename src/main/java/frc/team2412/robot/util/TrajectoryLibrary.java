@@ -0,0 +1,191 @@
+package frc.team2412.robot.util;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.frcteam2910.common.control.Trajectory;
+
+import edu.wpi.first.wpilibj.Filesystem;
+
+/**
+ * Autonomous trajectories precompiled on the dev machine and deployed as one binary file, so the robot
+ * doesn't profile paths at startup.
+ *
+ * The file is memory mapped the first time a trajectory is requested, and each trajectory is only
+ * decoded when it's requested, so only the selected auto's paths are read. If the file is missing or
+ * doesn't have a trajectory, it's generated on the robot like before.
+ *
+ * The file is written by ./gradlew generateTrajectories, which runs before every deploy.
+ */
+public class TrajectoryLibrary {
+    public static class TrajectoryLibraryConstants {
+        public static final String FILE_NAME = "trajectories.bin";
+        // Longest time between samples in seconds, well under the control loop period
+        public static final double SAMPLE_PERIOD = 0.005;
+    }
+
+    private static final int MAGIC = 0x5452414a; // "TRAJ"
+    private static final int VERSION = 1;
+    private static final int ARRAYS_PER_TRAJECTORY = 8;
+
+    // Non-null while the precompiler is recording trajectories instead of loading them
+    private static Map<String, SampledTrajectory> recording = null;
+
+    private static boolean opened = false;
+    private static ByteBuffer buffer;
+    private static Map<String, Integer> offsets;
+
+    private TrajectoryLibrary() {
+    }
+
+    /**
+     * Returns a precompiled trajectory, or generates and samples it if it isn't precompiled. Either way
+     * it's a {@link SampledTrajectory}, except while recording.
+     *
+     * @param name
+     *            The name of the trajectory, unique across all autos.
+     * @param generator
+     *            Generates the trajectory. Must be the same code the trajectory was precompiled from.
+     * @return The trajectory.
+     */
+    public static synchronized Trajectory get(String name, Supplier<Trajectory> generator) {
+        if (recording != null) {
+            Trajectory trajectory = generator.get();
+            if (recording.put(name, SampledTrajectory.sample(trajectory,
+                    TrajectoryLibraryConstants.SAMPLE_PERIOD)) != null) {
+                throw new IllegalStateException("Duplicate trajectory name " + name);
+            }
+            return trajectory;
+        }
+
+        SampledTrajectory trajectory = load(name);
+        if (trajectory != null) {
+            return trajectory;
+        }
+        System.out.println("Trajectory " + name + " isn't precompiled, generating it");
+        // Sampled here so it's done on the calling thread, usually the auto loader
+        return SampledTrajectory.sample(generator.get(), TrajectoryLibraryConstants.SAMPLE_PERIOD);
+    }
+
+    private static SampledTrajectory load(String name) {
+        if (!opened) {
+            opened = true;
+            open(new File(Filesystem.getDeployDirectory(), TrajectoryLibraryConstants.FILE_NAME).getPath());
+        }
+        Integer offset = offsets != null ? offsets.get(name) : null;
+        if (offset == null) {
+            return null;
+        }
+
+        ByteBuffer data = buffer.duplicate();
+        data.position(offset);
+        double period = data.getDouble();
+        int count = data.getInt();
+        float[][] arrays = new float[ARRAYS_PER_TRAJECTORY][count];
+        for (float[] array : arrays) {
+            data.asFloatBuffer().get(array);
+            data.position(data.position() + count * Float.BYTES);
+        }
+        return new SampledTrajectory(period, arrays[0], arrays[1], arrays[2], arrays[3], arrays[4], arrays[5],
+                arrays[6], arrays[7]);
+    }
+
+    private static void open(String fileName) {
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (mapped.getInt() != MAGIC || mapped.getInt() != VERSION) {
+                System.out.println(fileName + " is not a version " + VERSION + " trajectory library");
+                return;
+            }
+            int count = mapped.getInt();
+            Map<String, Integer> index = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                byte[] name = new byte[mapped.getShort()];
+                mapped.get(name);
+                index.put(new String(name, StandardCharsets.UTF_8), mapped.getInt());
+            }
+            // Offsets are from the end of the index
+            int dataStart = mapped.position();
+            index.replaceAll((name, offset) -> dataStart + offset);
+            buffer = mapped;
+            offsets = index;
+            System.out.println("Mapped " + count + " precompiled trajectories from " + fileName);
+        } catch (IOException err) {
+            System.out.println("Couldn't read trajectory library " + fileName + ": " + err);
+        }
+    }
+
+    /**
+     * Makes {@link #get(String, Supplier)} generate and record every trajectory instead of loading it.
+     * Used by the precompiler.
+     */
+    public static synchronized void startRecording() {
+        recording = new LinkedHashMap<>();
+    }
+
+    /**
+     * Stops recording trajectories.
+     *
+     * @return The trajectories requested since {@link #startRecording()}, by name.
+     */
+    public static synchronized Map<String, SampledTrajectory> stopRecording() {
+        Map<String, SampledTrajectory> recorded = recording;
+        recording = null;
+        return recorded;
+    }
+
+    /**
+     * Writes trajectories to a file that can be loaded by {@link #get(String, Supplier)}.
+     *
+     * @param fileName
+     *            The path to write to.
+     * @param trajectories
+     *            The trajectories, by name.
+     * @throws IOException
+     *             If the file couldn't be written.
+     */
+    public static void write(String fileName, Map<String, SampledTrajectory> trajectories) throws IOException {
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        DataOutputStream dataOut = new DataOutputStream(data);
+        Map<String, Integer> index = new LinkedHashMap<>();
+        for (var entry : trajectories.entrySet()) {
+            index.put(entry.getKey(), dataOut.size());
+            SampledTrajectory trajectory = entry.getValue();
+            dataOut.writeDouble(trajectory.getPeriod());
+            dataOut.writeInt(trajectory.getSampleCount());
+            for (float[] array : trajectory.getSamples()) {
+                for (float value : array) {
+                    dataOut.writeFloat(value);
+                }
+            }
+        }
+        dataOut.flush();
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(Paths.get(fileName))))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(index.size());
+            for (var entry : index.entrySet()) {
+                byte[] name = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                out.writeShort(name.length);
+                out.write(name);
+                out.writeInt(entry.getValue());
+            }
+            data.writeTo(out);
+        }
+    }
+}
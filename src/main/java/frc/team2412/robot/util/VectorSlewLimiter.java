@@ -5,18 +5,23 @@
 package frc.team2412.robot.util;
 
 import edu.wpi.first.math.MathUtil;
-import edu.wpi.first.util.WPIUtilJNI;
 import org.frcteam2910.common.math.Vector2;
 
 public class VectorSlewLimiter {
     private final double rateLimit;
+    private final TimeSource timeSource;
     private Vector2 prevVal;
     private double prevTime;
 
-    public VectorSlewLimiter(double rateLimit, Vector2 initialValue) {
+    public VectorSlewLimiter(double rateLimit, Vector2 initialValue, TimeSource timeSource) {
         this.rateLimit = rateLimit;
+        this.timeSource = timeSource;
         prevVal = initialValue;
-        prevTime = WPIUtilJNI.now() * 1e-6;
+        prevTime = timeSource.getTime();
+    }
+
+    public VectorSlewLimiter(double rateLimit, Vector2 initialValue) {
+        this(rateLimit, initialValue, TimeSource.FPGA);
     }
 
     public VectorSlewLimiter(double rateLimit) {
@@ -24,7 +29,19 @@ public class VectorSlewLimiter {
     }
 
     public Vector2 calculate(Vector2 input) {
-        double currentTime = WPIUtilJNI.now() * 1e-6;
+        return calculate(input, timeSource.getTime());
+    }
+
+    /**
+     * Rate limits the input, using an explicit timestamp.
+     *
+     * @param input
+     *            The input vector.
+     * @param currentTime
+     *            The current time in seconds.
+     * @return The rate limited vector.
+     */
+    public Vector2 calculate(Vector2 input, double currentTime) {
         double elapsedTime = currentTime - prevTime;
         prevTime = currentTime;
         double x = MathUtil.clamp(input.x - prevVal.x, -rateLimit * elapsedTime, rateLimit * elapsedTime);
@@ -34,7 +51,11 @@ public class VectorSlewLimiter {
     }
 
     public void reset(Vector2 value) {
+        reset(value, timeSource.getTime());
+    }
+
+    public void reset(Vector2 value, double currentTime) {
         prevVal = value;
-        prevTime = WPIUtilJNI.now() * 1e-6;
+        prevTime = currentTime;
     }
 }
@@ -0,0 +1,182 @@
+package frc.team2412.robot.util;
+
+import java.util.List;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Transform2d;
+import edu.wpi.first.math.trajectory.Trajectory;
+
+/**
+ * Samples a WPILib {@link Trajectory} without searching its state list every loop.
+ *
+ * {@link Trajectory#sample(double)} binary searches the states on every call. Followers sample at
+ * increasing times, so this keeps the index of the last segment as a cursor and only steps it forward,
+ * which is amortized O(1). Sampling earlier than the cursor falls back to a binary search.
+ *
+ * Per-segment values are precomputed. Within a segment, the math is the same as
+ * {@link Trajectory.State#interpolate}, so samples are identical to {@link Trajectory#sample(double)}:
+ * distance is integrated from the starting velocity and acceleration, and the pose moves in a straight
+ * line with its rotation interpolated linearly. The pose is computed from the segment's transform stored
+ * as plain doubles, with the same operations as {@link Pose2d#plus} and {@link Transform2d#times}, so
+ * only the resulting pose is allocated.
+ *
+ * Not thread safe, each follower should have its own sampler.
+ */
+public class WpilibTrajectorySampler {
+    private final Pose2d[] poses;
+    private final double[] times;
+    private final double[] velocities;
+    private final double[] accelerations;
+    private final double[] curvatures;
+    // Per segment, the transform from state i to i + 1 and its length
+    private final double[] deltaX;
+    private final double[] deltaY;
+    private final double[] deltaTheta;
+    private final double[] lengths;
+
+    private int cursor = 0;
+
+    /**
+     * Creates a new {@link WpilibTrajectorySampler}.
+     *
+     * @param trajectory
+     *            The trajectory to sample. Must have at least one state.
+     */
+    public WpilibTrajectorySampler(Trajectory trajectory) {
+        List<Trajectory.State> states = trajectory.getStates();
+        int count = states.size();
+        if (count == 0) {
+            throw new IllegalArgumentException("Trajectory has no states");
+        }
+        poses = new Pose2d[count];
+        times = new double[count];
+        velocities = new double[count];
+        accelerations = new double[count];
+        curvatures = new double[count];
+        int segments = Math.max(count - 1, 0);
+        deltaX = new double[segments];
+        deltaY = new double[segments];
+        deltaTheta = new double[segments];
+        lengths = new double[segments];
+
+        for (int i = 0; i < count; i++) {
+            Trajectory.State state = states.get(i);
+            poses[i] = state.poseMeters;
+            times[i] = state.timeSeconds;
+            velocities[i] = state.velocityMetersPerSecond;
+            accelerations[i] = state.accelerationMetersPerSecondSq;
+            curvatures[i] = state.curvatureRadPerMeter;
+        }
+        for (int i = 0; i < segments; i++) {
+            Transform2d transform = poses[i + 1].minus(poses[i]);
+            deltaX[i] = transform.getX();
+            deltaY[i] = transform.getY();
+            deltaTheta[i] = transform.getRotation().getRadians();
+            lengths[i] = poses[i + 1].getTranslation().getDistance(poses[i].getTranslation());
+        }
+    }
+
+    public double getTotalTime() {
+        return times[times.length - 1];
+    }
+
+    /**
+     * Moves the cursor back to the start of the trajectory, for following it again.
+     */
+    public void reset() {
+        cursor = 0;
+    }
+
+    /**
+     * Samples the trajectory.
+     *
+     * @param time
+     *            The time since the start of the trajectory in seconds.
+     * @param result
+     *            The state to write into.
+     * @return {@code result}.
+     */
+    public Trajectory.State sample(double time, Trajectory.State result) {
+        int last = times.length - 1;
+        if (time <= times[0]) {
+            return set(result, 0);
+        }
+        if (time >= times[last]) {
+            return set(result, last);
+        }
+
+        // Trajectory.sample interpolates into a state from the segment before it, so equal times go back too
+        if (time <= times[cursor]) {
+            cursor = findSegment(time);
+        }
+        // The trajectory ends after time, so this stops before the last state
+        while (times[cursor + 1] < time) {
+            cursor++;
+        }
+
+        int i = cursor;
+        double segmentTime = times[i + 1] - times[i];
+        if (Math.abs(segmentTime) < 1e-9) {
+            return set(result, i + 1);
+        }
+        // Written the same way as Trajectory.sample and State.interpolate, so the rounding matches too
+        double newTime = times[i] + segmentTime * ((time - times[i]) / segmentTime);
+        double deltaTime = newTime - times[i];
+        boolean reversing = velocities[i] < 0 || (Math.abs(velocities[i]) < 1e-9 && accelerations[i] < 0);
+        double distance = (velocities[i] * deltaTime + 0.5 * accelerations[i] * Math.pow(deltaTime, 2))
+                * (reversing ? -1.0 : 1.0);
+        double fraction = distance / lengths[i];
+
+        result.timeSeconds = newTime;
+        result.velocityMetersPerSecond = velocities[i] + accelerations[i] * deltaTime;
+        result.accelerationMetersPerSecondSq = accelerations[i];
+        result.poseMeters = interpolatePose(i, fraction);
+        result.curvatureRadPerMeter = curvatures[i] + (curvatures[i + 1] - curvatures[i]) * fraction;
+        return result;
+    }
+
+    /**
+     * Returns {@code poses[i].plus(transform.times(fraction))}, where transform is the segment's, without
+     * allocating the intermediate objects.
+     */
+    private Pose2d interpolatePose(int i, double fraction) {
+        Pose2d start = poses[i];
+        double cos = start.getRotation().getCos();
+        double sin = start.getRotation().getSin();
+        // Transform2d.times
+        double x = deltaX[i] * fraction;
+        double y = deltaY[i] * fraction;
+        double theta = deltaTheta[i] * fraction;
+        double thetaCos = Math.cos(theta);
+        double thetaSin = Math.sin(theta);
+        // Pose2d.transformBy: the translation is rotated by the start rotation, and the rotations are added
+        return new Pose2d(start.getX() + (x * cos - y * sin), start.getY() + (x * sin + y * cos),
+                new Rotation2d(cos * thetaCos - sin * thetaSin, cos * thetaSin + sin * thetaCos));
+    }
+
+    /**
+     * Returns the index of the segment containing a time, between the first and last states.
+     */
+    private int findSegment(double time) {
+        int low = 0, high = times.length - 1;
+        while (high - low > 1) {
+            int mid = (low + high) >>> 1;
+            if (times[mid] < time) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private Trajectory.State set(Trajectory.State result, int index) {
+        result.timeSeconds = times[index];
+        result.velocityMetersPerSecond = velocities[index];
+        result.accelerationMetersPerSecondSq = accelerations[index];
+        result.poseMeters = poses[index];
+        result.curvatureRadPerMeter = curvatures[index];
+        return result;
+    }
+}
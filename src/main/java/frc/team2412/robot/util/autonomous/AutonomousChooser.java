@@ -1,6 +1,10 @@
 package frc.team2412.robot.util.autonomous;
 
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import com.google.errorprone.annotations.Immutable;
 
@@ -38,6 +42,32 @@ public class AutonomousChooser {
     public final NetworkTableEntry delayedStartEntry;
     public final NetworkTableEntry setupImage;
 
+    // Loads the selected mode's trajectories while disabled, so trajectory generation doesn't delay autonomous
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Autonomous trajectory loader");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+    private AutonomousMode overrideMode;
+    private CommandBase lastScheduled;
+    private AutonomousMode preparedMode;
+    private Future<?> preparedTrajectories;
+
+    // Initializing each constants class loads or generates its trajectories, without touching commands
+    private static final Map<AutonomousMode, Runnable> TRAJECTORY_LOADERS = Map.of(
+            AutonomousMode.ONE_BALL, OneBallAutoCommand.OneBallConstants::init,
+            AutonomousMode.TWO_BALL_LEFT, TwoBallAutoCommandLeft.TwoBallLeftConstants::init,
+            AutonomousMode.TWO_BALL_MIDDLE, TwoBallAutoCommandMiddle.TwoBallMiddleConstants::init,
+            AutonomousMode.TWO_BALL_RIGHT, TwoBallAutoCommandRight.TwoBallRightConstants::init,
+            AutonomousMode.TWO_BALL_FENDER, TwoBallFenderAutoCommand.TwoBallFenderConstants::init,
+            AutonomousMode.WPI_PATH, WPILibFiveBallAutoCommand.WPILibFiveBallConstants::init,
+            AutonomousMode.JACK_FIVE_BALL, JackFiveBallAutoCommand.FiveBallConstants::init,
+            AutonomousMode.JACK_FOUR_BALL_STEAL, JackStealFourBallAutoCommand.StealFourBallConstants::init,
+            AutonomousMode.JACK_THREE_BALL_STEAL, JackStealThreeBallAutoCommand.StealThreeBallConstants::init,
+            AutonomousMode.JACK_THREE_BALL_COMPAT_STEAL,
+            JackStealThreeBallCompatAutoCommand.StealThreeBallConstants::init);
+
     public AutonomousChooser(Subsystems subsystems) {
         this.subsystems = subsystems;
 
@@ -70,15 +100,86 @@ public class AutonomousChooser {
         delayedStartEntry = autonomousTab.add("Delay start", 0.0).withWidget(BuiltInWidgets.kNumberSlider).getEntry();
     }
 
-    public void scheduleCommand() {
-        AutonomousMode autoMode = autonomousModeChooser.getSelected();
-        if (autoMode != null) {
-            autoMode.commandSupplier.getCommand(subsystems).schedule();
+    /**
+     * Starts loading the selected mode's trajectories in the background if they aren't already loading.
+     * Should be called periodically while disabled.
+     *
+     * Only trajectories are loaded in the background. Commands are still built on the main thread in
+     * {@link #scheduleCommand()}, since building command groups isn't thread safe.
+     */
+    public synchronized void prepareTrajectories() {
+        AutonomousMode autoMode = getSelected();
+        if (autoMode == preparedMode) {
+            return;
+        }
+        preparedMode = autoMode;
+        Runnable trajectoryLoader = autoMode != null ? TRAJECTORY_LOADERS.get(autoMode) : null;
+        preparedTrajectories = trajectoryLoader != null ? loader.submit(() -> {
+            long start = System.nanoTime();
+            trajectoryLoader.run();
+            System.out.println("Loaded trajectories for " + autoMode.uiName + " in "
+                    + (System.nanoTime() - start) / 1e6 + " ms");
+        }) : null;
+    }
+
+    /**
+     * Builds and schedules the selected command, after the trajectories loaded by
+     * {@link #prepareTrajectories()} are ready.
+     *
+     * @return The scheduled command, or null if no mode is selected.
+     */
+    public synchronized CommandBase scheduleCommand() {
+        AutonomousMode autoMode = getSelected();
+        if (autoMode == null) {
+            return null;
+        }
+        if (autoMode == preparedMode && preparedTrajectories != null) {
+            // Waits if they're still loading, which is still faster than starting over
+            try {
+                preparedTrajectories.get();
+            } catch (InterruptedException | ExecutionException err) {
+                System.out.println("Couldn't load trajectories for " + autoMode.uiName + " in the background: "
+                        + err);
+            }
         }
+        preparedMode = null;
+        preparedTrajectories = null;
+        CommandBase command = autoMode.commandSupplier.getCommand(subsystems);
+        command.schedule();
+        lastScheduled = command;
+        return command;
+    }
+
+    /**
+     * Returns the last command scheduled by {@link #scheduleCommand()}.
+     *
+     * @return The last scheduled command, or null if none has been scheduled.
+     */
+    public synchronized CommandBase getLastScheduled() {
+        return lastScheduled;
+    }
+
+    /**
+     * Returns the selected mode, or the override if one is set.
+     *
+     * @return The selected mode.
+     */
+    public synchronized AutonomousMode getSelected() {
+        return overrideMode != null ? overrideMode : autonomousModeChooser.getSelected();
+    }
+
+    /**
+     * Overrides the mode selected on the dashboard, for running autos without a dashboard.
+     *
+     * @param mode
+     *            The mode to run, or null to use the dashboard selection again.
+     */
+    public synchronized void setOverride(AutonomousMode mode) {
+        overrideMode = mode;
     }
 
     public Pose2d getStartPose() {
-        return autonomousModeChooser.getSelected().startPose;
+        return getSelected().startPose;
     }
 
     @Immutable
@@ -257,5 +358,31 @@ public class AutonomousChooser {
             this.startPose = new Pose2d();
             this.setupImage = imagesPath + "imgnotfound.png";
         }
+
+        /**
+         * Returns whether the automated test runs this mode when asked for all modes. Subsystem tests, and
+         * modes that never finish on their own, are skipped, since the test fails if a mode is still
+         * running at the end of autonomous. They can still be run by name.
+         *
+         * @return True if the mode is an autonomous routine that ends on its own.
+         */
+        public boolean isSwept() {
+            switch (this) {
+                case CLIMB:
+                case INDEX:
+                case INTAKE:
+                case SHOOTER:
+                case CLIMB_DOWN_IN_QUEUE:
+                case CLIMB_UP_IN_QUEUE:
+                case CHARGE_COMPRESSOR:
+                    // Subsystem tests
+                    return false;
+                case INTAKE_SHOOTER:
+                    // ShooterTargetCommand never finishes
+                    return false;
+                default:
+                    return true;
+            }
+        }
     }
 }
@@ -0,0 +1,140 @@
+package frc.team2412.robot.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.frcteam2910.common.kinematics.ChassisVelocity;
+import org.frcteam2910.common.kinematics.SwerveKinematics;
+import org.frcteam2910.common.kinematics.SwerveOdometry;
+import org.frcteam2910.common.math.RigidTransform2;
+import org.frcteam2910.common.math.Rotation2;
+import org.frcteam2910.common.math.Vector2;
+import org.junit.Test;
+
+/**
+ * Checks that {@link PrimitiveSwerveKinematics} and {@link PrimitiveSwerveOdometry} compute exactly the
+ * same values as 2910's {@link SwerveKinematics} and {@link SwerveOdometry}.
+ */
+public class PrimitiveSwerveKinematicsTest {
+    private static final int ITERATIONS = 10000;
+
+    private static final SwerveKinematics[] LAYOUTS = {
+            // The drivebase's layout
+            new SwerveKinematics(
+                    new Vector2(0.5, 0.5),
+                    new Vector2(0.5, -0.5),
+                    new Vector2(-0.5, 0.5),
+                    new Vector2(-0.5, -0.5)),
+            // A rectangular layout in inches
+            new SwerveKinematics(
+                    new Vector2(11.375, 10.25),
+                    new Vector2(11.375, -10.25),
+                    new Vector2(-11.375, 10.25),
+                    new Vector2(-11.375, -10.25)),
+            // An asymmetric layout
+            new SwerveKinematics(
+                    new Vector2(12.1, 9.3),
+                    new Vector2(10.7, -11.2),
+                    new Vector2(-13.4, 8.8),
+                    new Vector2(-9.9, -12.6)),
+    };
+
+    private final Random random = new Random(2412);
+
+    /**
+     * Asserts that two doubles have the same bits, treating 0 and -0 as the same.
+     */
+    private static void assertSameBits(String message, double expected, double actual) {
+        // Adding 0 turns -0 into 0 and leaves every other value unchanged
+        assertEquals(message, Double.doubleToLongBits(expected + 0.0), Double.doubleToLongBits(actual + 0.0));
+    }
+
+    private double randomVelocity() {
+        return (random.nextDouble() * 2 - 1) * 200;
+    }
+
+    @Test
+    public void toChassisVelocityMatches() {
+        for (SwerveKinematics kinematics : LAYOUTS) {
+            PrimitiveSwerveKinematics primitive = new PrimitiveSwerveKinematics(kinematics, 4);
+            Vector2[] modules = new Vector2[4];
+            double[] moduleX = new double[4];
+            double[] moduleY = new double[4];
+            double[] result = new double[3];
+            for (int i = 0; i < ITERATIONS; i++) {
+                for (int j = 0; j < 4; j++) {
+                    moduleX[j] = randomVelocity();
+                    moduleY[j] = randomVelocity();
+                    modules[j] = new Vector2(moduleX[j], moduleY[j]);
+                }
+
+                ChassisVelocity expected = kinematics.toChassisVelocity(modules);
+                primitive.toChassisVelocity(moduleX, moduleY, result);
+                assertSameBits("vx", expected.getTranslationalVelocity().x, result[0]);
+                assertSameBits("vy", expected.getTranslationalVelocity().y, result[1]);
+                assertSameBits("omega", expected.getAngularVelocity(), result[2]);
+            }
+        }
+    }
+
+    @Test
+    public void toModuleVelocitiesMatches() {
+        for (SwerveKinematics kinematics : LAYOUTS) {
+            PrimitiveSwerveKinematics primitive = new PrimitiveSwerveKinematics(kinematics, 4);
+            double[] moduleX = new double[4];
+            double[] moduleY = new double[4];
+            for (int i = 0; i < ITERATIONS; i++) {
+                double vx = randomVelocity();
+                double vy = randomVelocity();
+                double omega = (random.nextDouble() * 2 - 1) * 10;
+
+                Vector2[] expected = kinematics.toModuleVelocities(new ChassisVelocity(new Vector2(vx, vy), omega));
+                primitive.toModuleVelocities(vx, vy, omega, moduleX, moduleY);
+                for (int j = 0; j < 4; j++) {
+                    assertSameBits("module " + j + " x", expected[j].x, moduleX[j]);
+                    assertSameBits("module " + j + " y", expected[j].y, moduleY[j]);
+                }
+
+                SwerveKinematics.normalizeModuleVelocities(expected, 1);
+                primitive.normalizeModuleVelocities(moduleX, moduleY, 1);
+                for (int j = 0; j < 4; j++) {
+                    assertSameBits("normalized module " + j + " x", expected[j].x, moduleX[j]);
+                    assertSameBits("normalized module " + j + " y", expected[j].y, moduleY[j]);
+                    assertSameBits("module " + j + " angle", expected[j].getAngle().toRadians(),
+                            PrimitiveSwerveKinematics.getModuleAngle(moduleX[j], moduleY[j]));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void odometryMatches() {
+        for (SwerveKinematics kinematics : LAYOUTS) {
+            RigidTransform2 start = new RigidTransform2(new Vector2(randomVelocity(), randomVelocity()),
+                    Rotation2.fromRadians(random.nextDouble() * 2 * Math.PI));
+            SwerveOdometry odometry = new SwerveOdometry(kinematics, start);
+            PrimitiveSwerveOdometry primitive = new PrimitiveSwerveOdometry(
+                    new PrimitiveSwerveKinematics(kinematics, 4), start);
+            Vector2[] modules = new Vector2[4];
+            double[] moduleX = new double[4];
+            double[] moduleY = new double[4];
+            for (int i = 0; i < ITERATIONS; i++) {
+                for (int j = 0; j < 4; j++) {
+                    moduleX[j] = randomVelocity();
+                    moduleY[j] = randomVelocity();
+                    modules[j] = new Vector2(moduleX[j], moduleY[j]);
+                }
+                Rotation2 angle = Rotation2.fromRadians(random.nextDouble() * 2 * Math.PI);
+                double dt = 0.005 + random.nextDouble() * 0.015;
+
+                RigidTransform2 expected = odometry.update(angle, dt, modules);
+                primitive.update(angle.cos, angle.sin, dt, moduleX, moduleY);
+                assertSameBits("x", expected.translation.x, primitive.getX());
+                assertSameBits("y", expected.translation.y, primitive.getY());
+                assertSameBits("cos", expected.rotation.cos, primitive.getCos());
+                assertSameBits("sin", expected.rotation.sin, primitive.getSin());
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package frc.team2412.robot.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.trajectory.Trajectory;
+import edu.wpi.first.math.trajectory.TrajectoryConfig;
+import edu.wpi.first.math.trajectory.TrajectoryGenerator;
+
+/**
+ * Checks that {@link WpilibTrajectorySampler} returns exactly the same states as
+ * {@link Trajectory#sample(double)}, whichever order it's sampled in.
+ */
+public class WpilibTrajectorySamplerTest {
+    private static final double STEP = 0.005;
+
+    private static final Trajectory[] TRAJECTORIES = { generate(false), generate(true) };
+
+    private static Trajectory generate(boolean reversed) {
+        TrajectoryConfig config = new TrajectoryConfig(3, 2).setReversed(reversed);
+        return TrajectoryGenerator.generateTrajectory(
+                new Pose2d(0, 0, Rotation2d.fromDegrees(reversed ? 180 : 0)),
+                List.of(new Translation2d(1.5, 0.8), new Translation2d(3, -0.5)),
+                new Pose2d(4.5, 1, Rotation2d.fromDegrees(reversed ? 270 : 90)),
+                config);
+    }
+
+    /**
+     * Asserts that two doubles have the same bits, treating 0 and -0 as the same.
+     */
+    private static void assertSameBits(String message, double expected, double actual) {
+        // Adding 0 turns -0 into 0 and leaves every other value unchanged
+        assertEquals(message, Double.doubleToLongBits(expected + 0.0), Double.doubleToLongBits(actual + 0.0));
+    }
+
+    private static void assertSameState(double time, Trajectory.State expected, Trajectory.State actual) {
+        String at = " at " + time;
+        assertSameBits("time" + at, expected.timeSeconds, actual.timeSeconds);
+        assertSameBits("velocity" + at, expected.velocityMetersPerSecond, actual.velocityMetersPerSecond);
+        assertSameBits("acceleration" + at, expected.accelerationMetersPerSecondSq,
+                actual.accelerationMetersPerSecondSq);
+        assertSameBits("x" + at, expected.poseMeters.getX(), actual.poseMeters.getX());
+        assertSameBits("y" + at, expected.poseMeters.getY(), actual.poseMeters.getY());
+        assertSameBits("rotation" + at, expected.poseMeters.getRotation().getRadians(),
+                actual.poseMeters.getRotation().getRadians());
+        assertSameBits("curvature" + at, expected.curvatureRadPerMeter, actual.curvatureRadPerMeter);
+    }
+
+    @Test
+    public void increasingTimesMatch() {
+        for (Trajectory trajectory : TRAJECTORIES) {
+            WpilibTrajectorySampler sampler = new WpilibTrajectorySampler(trajectory);
+            Trajectory.State result = new Trajectory.State();
+            for (double time = -0.1; time < trajectory.getTotalTimeSeconds() + 0.1; time += STEP) {
+                assertSameState(time, trajectory.sample(time), sampler.sample(time, result));
+            }
+        }
+    }
+
+    @Test
+    public void decreasingTimesMatch() {
+        for (Trajectory trajectory : TRAJECTORIES) {
+            WpilibTrajectorySampler sampler = new WpilibTrajectorySampler(trajectory);
+            Trajectory.State result = new Trajectory.State();
+            for (double time = trajectory.getTotalTimeSeconds() + 0.1; time > -0.1; time -= STEP) {
+                assertSameState(time, trajectory.sample(time), sampler.sample(time, result));
+            }
+        }
+    }
+
+    @Test
+    public void randomTimesMatch() {
+        Random random = new Random(2412);
+        for (Trajectory trajectory : TRAJECTORIES) {
+            WpilibTrajectorySampler sampler = new WpilibTrajectorySampler(trajectory);
+            Trajectory.State result = new Trajectory.State();
+            for (int i = 0; i < 10000; i++) {
+                double time = random.nextDouble() * trajectory.getTotalTimeSeconds();
+                assertSameState(time, trajectory.sample(time), sampler.sample(time, result));
+            }
+        }
+    }
+
+    @Test
+    public void statesMatch() {
+        for (Trajectory trajectory : TRAJECTORIES) {
+            WpilibTrajectorySampler sampler = new WpilibTrajectorySampler(trajectory);
+            Trajectory.State result = new Trajectory.State();
+            for (Trajectory.State state : trajectory.getStates()) {
+                assertSameState(state.timeSeconds, trajectory.sample(state.timeSeconds),
+                        sampler.sample(state.timeSeconds, result));
+            }
+        }
+    }
+}